@@ -19,6 +19,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestClassOrder;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.parallel.ResourceLock;
 
 import edu.usfca.cs272.tests.utils.ProjectPath;
 import edu.usfca.cs272.tests.utils.ProjectTests;
@@ -177,6 +178,7 @@ public class BuildCountTests extends ProjectTests {
 	@Tag("past-v4")
 	@Tag("past-v5")
 	@TestMethodOrder(OrderAnnotation.class)
+	@ResourceLock(ProjectTests.DEFAULT_OUTPUT)
 	public class ExceptionTests {
 		/** Creates a new instance of this class. */
 		public ExceptionTests() {}
@@ -23,7 +23,11 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestClassOrder;
 import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -38,6 +42,8 @@ import edu.usfca.cs272.tests.utils.ProjectTests;
  * @version Spring 2025
  */
 @TestClassOrder(ClassOrderer.OrderAnnotation.class)
+@Execution(ExecutionMode.CONCURRENT)
+@ExtendWith(ProjectTests.IsolatedOutput.class)
 public class BuildIndexTests extends ProjectTests {
 	/** Creates a new instance of this class. */
 	public BuildIndexTests() {
@@ -197,6 +203,7 @@ public class BuildIndexTests extends ProjectTests {
 	@Tag("past-v4")
 	@Tag("past-v5")
 	@TestMethodOrder(OrderAnnotation.class)
+	@ResourceLock(ProjectTests.DEFAULT_OUTPUT)
 	public class ExceptionTests {
 		/** Creates a new instance of this class. */
 		public ExceptionTests() {}
@@ -1,14 +1,12 @@
 package edu.usfca.cs272.tests;
 
 import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
-import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.net.URI;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Supplier;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.ClassOrderer;
@@ -26,6 +24,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import edu.usfca.cs272.tests.utils.ProjectBenchmarks;
 import edu.usfca.cs272.tests.utils.ProjectFlag;
 import edu.usfca.cs272.tests.utils.ProjectPath;
+import edu.usfca.cs272.tests.utils.ProjectStatistics.Speedup;
 import edu.usfca.cs272.tests.utils.ProjectTests;
 
 /**
@@ -682,9 +681,8 @@ public class CrawlSiteTests extends ProjectBenchmarks {
 
 			// then test the timing
 			assertTimeoutPreemptively(LONG_TIMEOUT, () -> {
-				double result = compare("Web-Crawl", "1 Worker", args1, BENCH_WORKERS.text + " Workers", args2);
-				Supplier<String> debug = () -> String.format(format, BENCH_WORKERS.num, result, target, "1 worker");
-				assertTrue(result >= target, debug);
+				Speedup result = compare("Web-Crawl", "1 Worker", args1, BENCH_WORKERS.text + " Workers", args2);
+				assertSpeedup(result, target, BENCH_WORKERS.num, "1 worker");
 			});
 		}
 
@@ -722,9 +720,8 @@ public class CrawlSiteTests extends ProjectBenchmarks {
 
 			// then test the timing
 			assertTimeoutPreemptively(LONG_TIMEOUT, () -> {
-				double result = compare("Web-Search", "1 Worker", args1, BENCH_WORKERS.text + " Workers", args2);
-				Supplier<String> debug = () -> String.format(format, BENCH_WORKERS.num, result, target, "1 worker");
-				assertTrue(result >= target, debug);
+				Speedup result = compare("Web-Search", "1 Worker", args1, BENCH_WORKERS.text + " Workers", args2);
+				assertSpeedup(result, target, BENCH_WORKERS.num, "1 worker");
 			});
 		}
 	}
@@ -0,0 +1,284 @@
+package edu.usfca.cs272.tests;
+
+import static edu.usfca.cs272.tests.utils.ProjectFlag.HTML;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.MAX;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.THREADS;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import edu.usfca.cs272.Driver;
+import edu.usfca.cs272.tests.utils.ProjectBenchmarks;
+import edu.usfca.cs272.tests.utils.ProjectHistogram;
+import edu.usfca.cs272.tests.utils.ProjectJson;
+import edu.usfca.cs272.tests.utils.ProjectPath;
+import edu.usfca.cs272.tests.utils.ProjectRecordings;
+import edu.usfca.cs272.tests.utils.ProjectServer;
+import edu.usfca.cs272.tests.utils.ProjectTests;
+
+/**
+ * A benchmark suite that crawls a generated web site served by a local
+ * {@link ProjectServer}, sweeping the number of pages to crawl and the number
+ * of worker threads. Reports the pages per second, bytes per second, the time
+ * until the first page is ready to index, and the 99th percentile time per
+ * page (fetch and parse) for every combination. The sweep can be changed with
+ * the {@code bench.crawl.pages} and {@code bench.crawl.threads} settings, and
+ * the server can add latency or limit bandwidth with the
+ * {@code crawl.latency.ms} and {@code crawl.bandwidth} settings. Meant to be
+ * run with the benchmark profile only.
+ *
+ * THESE ARE VERY SLOW TESTS. AVOID RUNNING UNLESS REALLY NEEDED.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+@Tag("benchmark")
+@Tag("bench-crawl")
+public class CrawlThroughputTests extends ProjectBenchmarks {
+	/** The numbers of pages to crawl. */
+	public static final int[] CRAWL_PAGES = Arrays.stream(setting("bench.crawl.pages", "100,1000,2500").split(","))
+			.map(String::strip).filter(value -> !value.isEmpty()).mapToInt(Integer::parseInt).sorted().toArray();
+
+	/** The maximum number of worker threads to sweep. */
+	public static final int CRAWL_THREADS = setting("bench.crawl.threads", 64);
+
+	/** The number of timed rounds per combination (the median is reported). */
+	public static final int CRAWL_ROUNDS = setting("bench.crawl.rounds", 3);
+
+	/** The number of child links per generated page. */
+	public static final int CRAWL_LINKS = setting("bench.crawl.links", 10);
+
+	/** The number of words per generated page. */
+	public static final int CRAWL_WORDS = setting("bench.crawl.words", 250);
+
+	/** The host directory of the generated web site. */
+	public static final String CRAWL_HOST = "crawl.local";
+
+	/** Amount of time to wait for a single combination to finish. */
+	public static final Duration CRAWL_TIMEOUT = Duration.ofMinutes(30);
+
+	/** The directory of the generated web site. */
+	private static Path site = null;
+
+	/** The server of the generated web site. */
+	private static ProjectServer server = null;
+
+	/** The seed of the generated web site. */
+	private static String seed = null;
+
+	/** The measurements of every combination that finished. */
+	private static final Map<String, Crawl> crawls = new LinkedHashMap<>();
+
+	/**
+	 * The measurements of a single crawl.
+	 *
+	 * @param pages the number of pages requested
+	 * @param threads the number of worker threads
+	 * @param millis the wall time in milliseconds
+	 * @param fetched the number of pages fetched
+	 * @param bytes the number of bytes fetched
+	 * @param first the time until the first page was fetched in milliseconds
+	 * @param latency the time per page in microseconds
+	 */
+	public static record Crawl(int pages, int threads, long millis, long fetched, long bytes, double first, ProjectHistogram latency) {
+		/**
+		 * Returns the pages fetched per second.
+		 *
+		 * @return the pages per second
+		 */
+		public double pagesPerSecond() {
+			return fetched / seconds(Math.max(1, millis));
+		}
+
+		/**
+		 * Returns the bytes fetched per second.
+		 *
+		 * @return the bytes per second
+		 */
+		public double bytesPerSecond() {
+			return bytes / seconds(Math.max(1, millis));
+		}
+	}
+
+	/** Creates a new instance of this class. */
+	public CrawlThroughputTests() {}
+
+	/**
+	 * Generates the web site (large enough for the largest crawl) and starts
+	 * serving it.
+	 *
+	 * @throws Exception if unable to generate or serve the web site
+	 */
+	@BeforeAll
+	public static void startServer() throws Exception {
+		int largest = CRAWL_PAGES.length > 0 ? CRAWL_PAGES[CRAWL_PAGES.length - 1] : 1;
+
+		site = Files.createTempDirectory("crawl-");
+		seed = ProjectServer.generate(site, CRAWL_HOST, largest, CRAWL_LINKS, CRAWL_WORDS, 272);
+
+		server = new ProjectServer(site, Duration.ofMillis(ProjectServer.LATENCY), ProjectServer.BANDWIDTH);
+		server.start();
+	}
+
+	/**
+	 * Returns every combination of pages and worker threads to benchmark.
+	 *
+	 * @return the pages and worker threads
+	 */
+	public static Stream<Arguments> matrix() {
+		return Arrays.stream(CRAWL_PAGES).boxed().flatMap(pages ->
+				Arrays.stream(sweep(CRAWL_THREADS)).mapToObj(threads -> Arguments.of(pages, threads)));
+	}
+
+	/**
+	 * Benchmarks crawling the generated web site.
+	 *
+	 * @param pages the number of pages to crawl
+	 * @param threads the number of worker threads
+	 */
+	@ParameterizedTest(name = "{0} pages {1} threads")
+	@MethodSource("matrix")
+	public void testThroughput(int pages, int threads) {
+		String[] args = {
+				HTML.flag, server.base().resolve(seed).toString(),
+				MAX.flag, Integer.toString(pages),
+				THREADS.flag, Integer.toString(threads)
+		};
+
+		// make sure code runs without exceptions before testing
+		assertNoExceptions(args, LONG_TIMEOUT);
+
+		assertTimeoutPreemptively(CRAWL_TIMEOUT, () -> {
+			Crawl[] rounds = new Crawl[Math.max(1, CRAWL_ROUNDS)];
+
+			for (int i = 0; i < rounds.length; i++) {
+				ProjectTests.freeMemory();
+				rounds[i] = crawl(args, pages, threads);
+				Assertions.assertTrue(rounds[i].fetched() > 0, () -> "No pages fetched from " + args[1]);
+			}
+
+			Arrays.sort(rounds, Comparator.comparingLong(Crawl::millis));
+			Crawl median = rounds[rounds.length / 2];
+			crawls.put(pages + "-" + threads, median);
+
+			System.out.printf("%d pages %d threads: %.1f pages/sec, %.1f KB/sec, first page %.1f ms, p99 %.3f ms%n",
+					pages, threads, median.pagesPerSecond(), median.bytesPerSecond() / 1024,
+					median.first(), median.latency().percentile(99) / 1000.0);
+		});
+	}
+
+	/**
+	 * Crawls the generated web site once while measuring the crawl.
+	 *
+	 * @param args the driver arguments
+	 * @param pages the number of pages to crawl
+	 * @param threads the number of worker threads
+	 * @return the measurements of the crawl
+	 * @throws IOException if unable to record the crawl
+	 */
+	public static Crawl crawl(String[] args, int pages, int threads) throws IOException {
+		server.reset();
+		long[] times = new long[2];
+
+		ProjectHistogram latency = ProjectRecordings.pages(() -> {
+			times[0] = System.nanoTime();
+			Driver.main(args);
+			times[1] = System.nanoTime();
+		}, server.base().getPort());
+
+		long first = server.first();
+
+		return new Crawl(pages, threads,
+				Duration.ofNanos(times[1] - times[0]).toMillis(),
+				server.pages(), server.bytes(),
+				first < 0 ? Double.NaN : (first - times[0]) / 1_000_000.0,
+				latency);
+	}
+
+	/**
+	 * Stops the server, deletes the generated web site, and outputs the results
+	 * as a markdown table and as machine-readable JSON.
+	 *
+	 * @throws Exception if unable to stop the server or write the results
+	 */
+	@AfterAll
+	public static void outputThroughput() throws Exception {
+		if (server != null) {
+			server.close();
+		}
+
+		if (site != null) {
+			ProjectTests.deleteFiles(site);
+			Files.deleteIfExists(site.resolve(CRAWL_HOST));
+			Files.deleteIfExists(site);
+		}
+
+		if (crawls.isEmpty()) {
+			return;
+		}
+
+		StringWriter writer = new StringWriter();
+		PrintWriter out = new PrintWriter(writer);
+
+		out.printf("%n## Crawl Throughput - median of %d rounds, %d ms latency, %s bandwidth%n%n",
+				CRAWL_ROUNDS, ProjectServer.LATENCY,
+				ProjectServer.BANDWIDTH > 0 ? ProjectServer.BANDWIDTH + " bytes/sec" : "unlimited");
+		out.printf("| Pages | Threads | Fetched | Time (s) | Pages/sec | KB/sec | First Page (ms) | P50 (ms) | P99 (ms) |%n");
+		out.printf("|------:|--------:|--------:|---------:|----------:|-------:|----------------:|---------:|---------:|%n");
+
+		Map<String, Object> results = new LinkedHashMap<>();
+
+		for (var entry : crawls.entrySet()) {
+			Crawl crawl = entry.getValue();
+			ProjectHistogram latency = crawl.latency();
+
+			out.printf("| %5d | %7d | %7d | %8.2f | %9.1f | %6.1f | %15.1f | %8.3f | %8.3f |%n",
+					crawl.pages(), crawl.threads(), crawl.fetched(), seconds(crawl.millis()),
+					crawl.pagesPerSecond(), crawl.bytesPerSecond() / 1024, crawl.first(),
+					latency.percentile(50) / 1000.0, latency.percentile(99) / 1000.0);
+
+			Map<String, Object> summary = new LinkedHashMap<>();
+			summary.put("pages", crawl.pages());
+			summary.put("threads", crawl.threads());
+			summary.put("millis", crawl.millis());
+			summary.put("fetched", crawl.fetched());
+			summary.put("bytes", crawl.bytes());
+			summary.put("pagesPerSecond", crawl.pagesPerSecond());
+			summary.put("bytesPerSecond", crawl.bytesPerSecond());
+			summary.put("firstPageMillis", crawl.first());
+			summary.put("p50", latency.percentile(50));
+			summary.put("p99", latency.percentile(99));
+			summary.put("max", latency.max());
+			results.put(entry.getKey(), summary);
+		}
+
+		out.printf("%nThe first page time is from the start of the crawl until the seed page was fully sent.%n");
+		out.printf("The time per page is from one request of a worker thread until its next request, which%n");
+		out.printf("includes fetching and parsing the page. The JSON output for it is in microseconds.%n%n");
+		out.flush();
+
+		String table = writer.toString();
+		System.out.print(table);
+
+		Files.writeString(ProjectPath.ACTUAL.resolve("bench-crawl.md"), table);
+		Files.writeString(ProjectPath.ACTUAL.resolve("bench-crawl.json"), ProjectJson.toJson(results));
+	}
+}
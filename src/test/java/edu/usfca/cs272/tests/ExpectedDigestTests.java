@@ -0,0 +1,50 @@
+package edu.usfca.cs272.tests;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import edu.usfca.cs272.tests.utils.ProjectDigests;
+import edu.usfca.cs272.tests.utils.ProjectPath;
+import edu.usfca.cs272.tests.utils.ProjectTests;
+
+/**
+ * Checks the digest manifest of the expected output files is up to date, so
+ * that the output comparisons can trust it without reading the expected files.
+ * Does not run the driver.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+@Tag("digests")
+public class ExpectedDigestTests extends ProjectTests {
+	/** Creates a new instance of this class. */
+	public ExpectedDigestTests() {}
+
+	/**
+	 * Regenerates the manifest of the expected files and compares it to the
+	 * checked-in manifest.
+	 *
+	 * @throws IOException if unable to read the expected files
+	 */
+	@Test
+	public void testManifest() throws IOException {
+		Path expected = ProjectPath.EXPECTED.path;
+		Path manifest = expected.resolve(ProjectDigests.MANIFEST);
+
+		Assumptions.assumeTrue(Files.isReadable(manifest), () -> "No digest manifest for " + expected);
+
+		Assertions.assertLinesMatch(
+				ProjectDigests.generated(expected).lines(),
+				Files.readString(manifest, UTF_8).lines(),
+				() -> String.format("The digest manifest is out of date. Regenerate it by running "
+						+ "ProjectDigests.main() from the project-tests directory.%n\tat %s", manifest));
+	}
+}
@@ -0,0 +1,119 @@
+package edu.usfca.cs272.tests;
+
+import static edu.usfca.cs272.tests.utils.ProjectFlag.PARTIAL;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.QUERY;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.TEXT;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.THREADS;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import edu.usfca.cs272.tests.utils.ProjectBenchmarks;
+import edu.usfca.cs272.tests.utils.ProjectForks;
+
+/**
+ * A benchmark suite that launches a fresh JVM for every round, sweeping a
+ * matrix of garbage collectors and maximum heap sizes. The collectors, heap
+ * sizes, and rounds can be changed with the {@code bench.fork.collectors},
+ * {@code bench.fork.heaps}, {@code bench.fork.rounds}, and
+ * {@code bench.fork.runs} settings. Meant to be run with the benchmark profile
+ * only.
+ *
+ * THESE ARE VERY SLOW TESTS. AVOID RUNNING UNLESS REALLY NEEDED.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+@Tag("benchmark")
+@Tag("bench-forked")
+@TestMethodOrder(OrderAnnotation.class)
+public class ForkedJvmTests extends ProjectBenchmarks {
+	/** The garbage collectors to sweep. */
+	public static final List<String> COLLECTORS = list(setting("bench.fork.collectors", "G1,Parallel,ZGC"));
+
+	/** The maximum heap sizes to sweep. */
+	public static final List<String> HEAPS = list(setting("bench.fork.heaps", "256m,512m,2g"));
+
+	/** The number of JVMs to launch per configuration. */
+	public static final int FORK_ROUNDS = setting("bench.fork.rounds", 3);
+
+	/** The number of driver runs per JVM (the first is the cold run). */
+	public static final int FORK_RUNS = setting("bench.fork.runs", 5);
+
+	/** The number of worker threads to use. */
+	public static final String WORKERS = setting("bench.fork.threads", Threads.FOUR.text);
+
+	/** Amount of time to wait for the full matrix to finish. */
+	public static final Duration MATRIX_TIMEOUT = Duration.ofMinutes(90);
+
+	/** Creates a new instance of this class. */
+	public ForkedJvmTests() {}
+
+	/**
+	 * Benchmarks building the index from the text input directory.
+	 *
+	 * @throws IOException if unable to generate the benchmark corpus
+	 */
+	@Test
+	@Order(1)
+	public void forkBuild() throws IOException {
+		String[] args = { TEXT.flag, corpus(), THREADS.flag, WORKERS };
+		testMatrix("Build", args);
+	}
+
+	/**
+	 * Benchmarks building the index from the text input directory and partial
+	 * searching the complex queries.
+	 *
+	 * @throws IOException if unable to generate the benchmark corpus
+	 */
+	@Test
+	@Order(2)
+	public void forkSearch() throws IOException {
+		String[] args = {
+				TEXT.flag, corpus(), QUERY.flag, queries(),
+				PARTIAL.flag, THREADS.flag, WORKERS
+		};
+
+		testMatrix("Search", args);
+	}
+
+	/**
+	 * Makes sure the code runs without exceptions in this JVM (and produces the
+	 * reference output for a generated corpus), and then benchmarks the full
+	 * matrix in forked JVMs.
+	 *
+	 * @param file the file name to use to save output
+	 * @param args the driver arguments
+	 */
+	public static void testMatrix(String file, String[] args) {
+		// make sure code runs without exceptions before testing
+		assertNoExceptions(args, corpusTimeout(SHORT_TIMEOUT));
+		assertOracle(file, args);
+
+		Assertions.assertTimeoutPreemptively(MATRIX_TIMEOUT, () -> {
+			Map<String, Double> steady = ProjectForks.matrix(file, args, COLLECTORS, HEAPS, FORK_ROUNDS, Math.max(2, FORK_RUNS));
+			Assertions.assertEquals(COLLECTORS.size() * HEAPS.size(), steady.size());
+		});
+	}
+
+	/**
+	 * Splits a comma-separated setting into a list.
+	 *
+	 * @param setting the comma-separated setting
+	 * @return the values
+	 */
+	private static List<String> list(String setting) {
+		return Arrays.stream(setting.split(",")).map(String::strip).filter(value -> !value.isEmpty()).toList();
+	}
+}
@@ -0,0 +1,230 @@
+package edu.usfca.cs272.tests;
+
+import static edu.usfca.cs272.tests.utils.ProjectFlag.INDEX;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.TEXT;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import edu.usfca.cs272.tests.utils.ProjectBenchmarks;
+import edu.usfca.cs272.tests.utils.ProjectForks;
+import edu.usfca.cs272.tests.utils.ProjectForks.Footprint;
+import edu.usfca.cs272.tests.utils.ProjectJson;
+import edu.usfca.cs272.tests.utils.ProjectPath;
+import edu.usfca.cs272.tests.utils.ProjectStatistics;
+
+/**
+ * A benchmark suite that builds the index in freshly launched JVMs with small
+ * maximum heap sizes, and reports whether the build finished in each heap, the
+ * heap retained after garbage collection once the index is built, and the
+ * retained bytes per word position (posting) in the index. The heap sizes can
+ * be changed with the {@code bench.heap.sizes} setting.
+ *
+ * Fails if the build runs out of memory with a heap of at least
+ * {@code bench.budget.heap.mb} megabytes (128 by default), or if the retained
+ * heap exceeds the optional {@code bench.budget.heap.retained.mb} or
+ * {@code bench.budget.heap.posting.bytes} budgets. Meant to be run with the
+ * benchmark profile only.
+ *
+ * THESE ARE VERY SLOW TESTS. AVOID RUNNING UNLESS REALLY NEEDED.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+@Tag("benchmark")
+@Tag("bench-heap")
+public class HeapBudgetTests extends ProjectBenchmarks {
+	/** The maximum heap sizes to build the index with. */
+	public static final List<String> HEAP_SIZES = Arrays.stream(setting("bench.heap.sizes", "32m,64m,128m").split(","))
+			.map(String::strip).filter(value -> !value.isEmpty()).toList();
+
+	/** The time between forced garbage collections in the forked JVM. */
+	public static final Duration HEAP_INTERVAL = Duration.ofMillis(setting("bench.heap.interval.ms", 50));
+
+	/** The smallest heap in megabytes that every build must finish in (or 0 to skip). */
+	public static final int BUDGET_HEAP = setting("bench.budget.heap.mb", 128);
+
+	/** The maximum retained heap in megabytes (or 0 to skip). */
+	public static final int BUDGET_RETAINED = setting("bench.budget.heap.retained.mb", 0);
+
+	/** The maximum retained bytes per posting (or 0 to skip). */
+	public static final int BUDGET_POSTING = setting("bench.budget.heap.posting.bytes", 0);
+
+	/** Amount of time to wait for every heap size of a single input to finish. */
+	public static final Duration HEAP_TIMEOUT = Duration.ofMinutes(30);
+
+	/** The measurements of every input that finished. */
+	private static final Map<ProjectPath, List<Footprint>> footprints = new LinkedHashMap<>();
+
+	/** The number of postings of every input that finished. */
+	private static final Map<ProjectPath, Long> postings = new LinkedHashMap<>();
+
+	/** Creates a new instance of this class. */
+	public HeapBudgetTests() {}
+
+	/**
+	 * Builds the index from the input with every heap size, and checks the
+	 * results against the memory budgets.
+	 *
+	 * @param path the input to index
+	 * @throws IOException if unable to read the expected word counts
+	 */
+	@ParameterizedTest(name = "{0}")
+	@CsvSource({ "GUTEN", "RFCS", "TEXT" })
+	public void testHeap(ProjectPath path) throws IOException {
+		// the index output keeps the entire index reachable while it is written
+		Path output = ProjectPath.ACTUAL.resolve("heap-index-" + ProjectPath.id(path.path) + ".json");
+		String[] args = { TEXT.flag, path.text, INDEX.flag, output.toString() };
+
+		// make sure code runs without exceptions before testing
+		assertNoExceptions(args, SHORT_TIMEOUT);
+		long words = postings(path);
+
+		assertTimeoutPreemptively(HEAP_TIMEOUT, () -> {
+			List<Footprint> results = new ArrayList<>();
+
+			for (String heap : HEAP_SIZES) {
+				Footprint footprint = ProjectForks.footprint(heap, HEAP_INTERVAL, LONG_TIMEOUT, args);
+				results.add(footprint);
+
+				System.out.printf("%s %s heap: %s%n", path, heap, footprint.completed() ?
+						String.format("%.2f MB retained, %.1f bytes per posting",
+								megabytes(footprint.retained()), (double) footprint.retained() / words) :
+						"out of memory");
+			}
+
+			Files.deleteIfExists(output);
+			footprints.put(path, results);
+			postings.put(path, words);
+
+			List<Executable> budgets = new ArrayList<>();
+
+			for (Footprint footprint : results) {
+				budgets.add(() -> Assertions.assertTrue(footprint.completed() || BUDGET_HEAP <= 0 || megabytes(footprint.heap()) < BUDGET_HEAP,
+						debug("%s ran out of memory with a %s heap (every build must fit in %d MB).", path, footprint.heap(), BUDGET_HEAP)));
+			}
+
+			long[] retained = results.stream().filter(Footprint::completed).mapToLong(Footprint::retained).toArray();
+
+			if (retained.length > 0) {
+				double median = ProjectStatistics.median(retained);
+
+				budgets.add(() -> Assertions.assertTrue(BUDGET_RETAINED <= 0 || megabytes(median) <= BUDGET_RETAINED,
+						debug("%s retained %.2f MB (more than the %d MB budget).", path, megabytes(median), BUDGET_RETAINED)));
+
+				budgets.add(() -> Assertions.assertTrue(BUDGET_POSTING <= 0 || median / words <= BUDGET_POSTING,
+						debug("%s retained %.1f bytes per posting (more than the %d byte budget).", path, median / words, BUDGET_POSTING)));
+			}
+
+			Assertions.assertAll(budgets);
+		});
+	}
+
+	/**
+	 * Returns the number of postings (word positions) in the index of the input,
+	 * which is the sum of the expected word counts.
+	 *
+	 * @param path the input to index
+	 * @return the number of postings
+	 * @throws IOException if unable to read the expected word counts
+	 */
+	public static long postings(ProjectPath path) throws IOException {
+		String filename = String.format("counts-%s.json", ProjectPath.id(path.path));
+		Path expected = ProjectPath.EXPECTED.resolve("counts").resolve(filename).normalize();
+
+		Object counts = ProjectJson.parse(Files.readString(expected));
+		Assertions.assertTrue(counts instanceof Map, () -> "Unable to read word counts from " + expected);
+
+		return ((Map<?, ?>) counts).values().stream().mapToLong(count -> ((Number) count).longValue()).sum();
+	}
+
+	/**
+	 * Converts a heap size (e.g. "64m" or "2g") into megabytes.
+	 *
+	 * @param heap the heap size
+	 * @return the megabytes
+	 */
+	private static double megabytes(String heap) {
+		String size = heap.strip().toLowerCase(Locale.ROOT);
+		double value = Double.parseDouble(size.replaceAll("[kmg]$", ""));
+
+		return switch (size.charAt(size.length() - 1)) {
+			case 'k' -> value / 1024;
+			case 'm' -> value;
+			case 'g' -> value * 1024;
+			default -> megabytes(value);
+		};
+	}
+
+	/**
+	 * Outputs the heap measurements of every input as a markdown table and as
+	 * machine-readable JSON.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@AfterAll
+	public static void outputHeap() throws IOException {
+		if (footprints.isEmpty()) {
+			return;
+		}
+
+		StringWriter writer = new StringWriter();
+		PrintWriter out = new PrintWriter(writer);
+
+		out.printf("%n## Heap Budget - forced full GC every %d ms%n%n", HEAP_INTERVAL.toMillis());
+		out.printf("| Input | Postings | Heap | Finished | Retained (MB) | Bytes/Posting | Process (s) |%n");
+		out.printf("|:------|---------:|-----:|:---------|--------------:|--------------:|------------:|%n");
+
+		Map<String, Object> results = new LinkedHashMap<>();
+
+		for (var entry : footprints.entrySet()) {
+			long words = postings.get(entry.getKey());
+
+			for (Footprint footprint : entry.getValue()) {
+				out.printf("| %-5s | %8d | %4s | %-8s | %13s | %13s | %11.2f |%n", entry.getKey(), words,
+						footprint.heap(), footprint.completed() ? "yes" : "OOM",
+						footprint.completed() ? String.format("%.2f", megabytes(footprint.retained())) : "-",
+						footprint.completed() ? String.format("%.1f", (double) footprint.retained() / words) : "-",
+						footprint.process() / 1e9);
+
+				Map<String, Object> summary = new LinkedHashMap<>();
+				summary.put("postings", words);
+				summary.put("completed", footprint.completed());
+				summary.put("baseline", footprint.baseline());
+				summary.put("peak", footprint.peak());
+				summary.put("retained", footprint.retained());
+				summary.put("bytesPerPosting", (double) footprint.retained() / words);
+				summary.put("processNanos", footprint.process());
+				results.put(entry.getKey() + "-" + footprint.heap(), summary);
+			}
+		}
+
+		out.printf("%nRetained is the largest heap used after a forced full GC during the build minus the heap%n");
+		out.printf("used before it. Forced collections happen at a fixed interval, so it is a lower bound.%n%n");
+		out.flush();
+
+		String table = writer.toString();
+		System.out.print(table);
+
+		Files.writeString(ProjectPath.ACTUAL.resolve("bench-heap.md"), table);
+		Files.writeString(ProjectPath.ACTUAL.resolve("bench-heap.json"), ProjectJson.toJson(results));
+	}
+}
@@ -0,0 +1,163 @@
+package edu.usfca.cs272.tests;
+
+import static edu.usfca.cs272.tests.utils.ProjectFlag.PARTIAL;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.QUERY;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.TEXT;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.THREADS;
+import static edu.usfca.cs272.tests.utils.ProjectPath.ACTUAL;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import edu.usfca.cs272.Driver;
+import edu.usfca.cs272.tests.utils.ProjectBenchmarks;
+
+/**
+ * A JMH benchmark suite for building and partial searching with different
+ * numbers of worker threads. Each benchmark runs in forked JVMs with proper
+ * warmup iterations, and the results are saved as JSON in the actual output
+ * directory. Meant to be run with the benchmark profile only, for example:
+ *
+ * <pre>
+ * mvn test -P benchmark -Dgroups=bench-jmh -Dbench.jmh.threads=1,2,4,8
+ * </pre>
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+@Tag("benchmark")
+@Tag("bench-jmh")
+public class JmhBenchmarkTests extends ProjectBenchmarks {
+	/** Creates a new instance of this class. */
+	public JmhBenchmarkTests() {}
+
+	/**
+	 * Runs all of the JMH benchmarks in this class and saves the results as
+	 * JSON.
+	 *
+	 * @throws Exception if unable to run the benchmarks
+	 */
+	@Test
+	public void runBenchmarks() throws Exception {
+		Path results = ACTUAL.resolve(setting("bench.jmh.results", "jmh-driver.json"));
+		Files.createDirectories(ACTUAL.path);
+		corpus(); // generate the corpus (if needed) before forking
+
+		Options options = new OptionsBuilder()
+				.include(Pattern.quote(JmhBenchmarkTests.class.getName()))
+				.param("threads", setting("bench.jmh.threads", "1,2,4").split("\\s*,\\s*"))
+				.forks(setting("bench.jmh.forks", GITHUB ? 1 : 2))
+				.jvmArgsAppend("-Dbench.corpus=" + benchCorpus().name())
+				.resultFormat(ResultFormatType.JSON)
+				.result(results.toString())
+				.shouldFailOnError(true)
+				.build();
+
+		Collection<RunResult> runs = new Runner(options).run();
+
+		Assertions.assertFalse(runs.isEmpty(), "Unable to find any JMH benchmarks to run.");
+		Assertions.assertTrue(Files.isReadable(results), results::toString);
+	}
+
+	/**
+	 * The arguments to benchmark for each number of worker threads. Console and
+	 * log output is suppressed in the forked JVMs.
+	 */
+	@State(Scope.Benchmark)
+	public static class DriverState {
+		/** The number of worker threads (overridden by the runner). */
+		@Param({ "1", "2", "4" })
+		public String threads;
+
+		/** The arguments to build the index. */
+		public String[] build;
+
+		/** The arguments to build the index and partial search. */
+		public String[] search;
+
+		/** Creates a new instance of this class. */
+		public DriverState() {}
+
+		/**
+		 * Sets up the arguments and suppresses output for this trial.
+		 *
+		 * @throws IOException if unable to generate the benchmark corpus
+		 */
+		@Setup
+		public void setup() throws IOException {
+			Configurator.setAllLevels(LogManager.getRootLogger().getName(), Level.OFF);
+			System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+			build = new String[] {
+					TEXT.flag, corpus(), THREADS.flag, threads
+			};
+
+			search = new String[] {
+					TEXT.flag, corpus(), QUERY.flag, queries(),
+					PARTIAL.flag, THREADS.flag, threads
+			};
+		}
+	}
+
+	/**
+	 * Benchmarks building the index from the text input directory.
+	 *
+	 * @param state the benchmark arguments
+	 * @throws Exception if the driver throws an exception
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.MINUTES)
+	@Warmup(iterations = 3, time = 5)
+	@Measurement(iterations = 5, time = 5)
+	@Fork(2)
+	public void build(DriverState state) throws Exception {
+		Driver.main(state.build);
+	}
+
+	/**
+	 * Benchmarks building the index from the text input directory and partial
+	 * searching the complex queries.
+	 *
+	 * @param state the benchmark arguments
+	 * @throws Exception if the driver throws an exception
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.MINUTES)
+	@Warmup(iterations = 3, time = 5)
+	@Measurement(iterations = 5, time = 5)
+	@Fork(2)
+	public void search(DriverState state) throws Exception {
+		Driver.main(state.search);
+	}
+}
@@ -0,0 +1,169 @@
+package edu.usfca.cs272.tests;
+
+import static edu.usfca.cs272.tests.utils.ProjectFlag.PARTIAL;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.QUERY;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.TEXT;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.THREADS;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import edu.usfca.cs272.tests.utils.ProjectBenchmarks;
+import edu.usfca.cs272.tests.utils.ProjectHistogram;
+import edu.usfca.cs272.tests.utils.ProjectJson;
+import edu.usfca.cs272.tests.utils.ProjectPath;
+
+/**
+ * A benchmark suite that estimates the latency of individual queries, and
+ * reports the p50, p90, p99, and maximum latency for each query file in both
+ * exact and partial search modes. The number of sampled queries, queries per
+ * build, and rounds per batch can be changed with the
+ * {@code bench.latency.queries}, {@code bench.latency.batch}, and
+ * {@code bench.latency.rounds} settings. Meant to be run with the benchmark
+ * profile only.
+ *
+ * THESE ARE VERY SLOW TESTS. AVOID RUNNING UNLESS REALLY NEEDED.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+@Tag("benchmark")
+@Tag("bench-latency")
+public class QueryLatencyTests extends ProjectBenchmarks {
+	/** The maximum number of queries to sample per query file. */
+	public static final int LATENCY_QUERIES = setting("bench.latency.queries", 100);
+
+	/** The number of sampled queries to run after each build. */
+	public static final int LATENCY_BATCH = setting("bench.latency.batch", 25);
+
+	/** The number of timed rounds per batch. */
+	public static final int LATENCY_ROUNDS = setting("bench.latency.rounds", 3);
+
+	/** The number of worker threads to build with (or 0 for none). */
+	public static final int LATENCY_THREADS = setting("bench.latency.threads", 0);
+
+	/** Amount of time to wait for a single query file to finish. */
+	public static final Duration LATENCY_TIMEOUT = Duration.ofMinutes(30);
+
+	/** The histograms of every query file and mode that finished. */
+	private static final Map<String, ProjectHistogram> histograms = new LinkedHashMap<>();
+
+	/** Creates a new instance of this class. */
+	public QueryLatencyTests() {}
+
+	/**
+	 * Estimates the latency of each query in the query file.
+	 *
+	 * @param path the query file
+	 * @param partial whether to use partial search
+	 * @throws IOException if unable to generate the benchmark corpus
+	 */
+	@ParameterizedTest(name = "{0} partial={1}")
+	@CsvSource({
+		"QUERY_COMPLEX, false", "QUERY_COMPLEX, true",
+		"QUERY_RESPECT, false", "QUERY_RESPECT, true",
+		"QUERY_LETTERS, false", "QUERY_LETTERS, true",
+		"QUERY_WORDS, false", "QUERY_WORDS, true"
+	})
+	public void testLatency(ProjectPath path, boolean partial) throws IOException {
+		String text = corpus();
+		String[] build = LATENCY_THREADS > 0 ?
+				new String[] { TEXT.flag, text, THREADS.flag, String.valueOf(LATENCY_THREADS) } :
+				new String[] { TEXT.flag, text };
+
+		String[] args = Stream.concat(Stream.of(build), partial ?
+				Stream.of(QUERY.flag, path.text, PARTIAL.flag) : Stream.of(QUERY.flag, path.text))
+				.toArray(String[]::new);
+
+		// make sure code runs without exceptions before testing
+		assertNoExceptions(args, corpusTimeout(SHORT_TIMEOUT));
+
+		assertTimeoutPreemptively(LATENCY_TIMEOUT, () -> {
+			ProjectHistogram histogram = latency(build, path.path, partial, LATENCY_QUERIES, LATENCY_BATCH, LATENCY_ROUNDS);
+			Assertions.assertTrue(histogram.count() > 0, () -> "No queries sampled from " + path.text);
+
+			String name = name(path, partial);
+			histograms.put(name, histogram);
+
+			System.out.printf("%s: %s%n", name, histogram);
+			Files.writeString(ProjectPath.ACTUAL.resolve("latency-" + name + ".txt"), histogram.distribution(1000));
+		});
+	}
+
+	/**
+	 * Outputs the latency of every query file and mode as a markdown table and
+	 * as machine-readable JSON.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@AfterAll
+	public static void outputLatency() throws IOException {
+		if (histograms.isEmpty()) {
+			return;
+		}
+
+		StringWriter writer = new StringWriter();
+		PrintWriter out = new PrintWriter(writer);
+
+		out.printf("%n## Query Latency - %d queries in batches of %d x %d rounds per file%n%n",
+				LATENCY_QUERIES, LATENCY_BATCH, LATENCY_ROUNDS);
+		out.printf("| Queries | Mode | Count | P50 (ms) | P90 (ms) | P99 (ms) | Max (ms) |%n");
+		out.printf("|:--------|:-----|------:|---------:|---------:|---------:|---------:|%n");
+
+		Map<String, Object> results = new LinkedHashMap<>();
+
+		for (var entry : histograms.entrySet()) {
+			ProjectHistogram histogram = entry.getValue();
+			String[] parts = entry.getKey().split("-");
+
+			out.printf("| %-7s | %-7s | %5d | %8.3f | %8.3f | %8.3f | %8.3f |%n", parts[0], parts[1],
+					histogram.count(), histogram.percentile(50) / 1000.0, histogram.percentile(90) / 1000.0,
+					histogram.percentile(99) / 1000.0, histogram.max() / 1000.0);
+
+			Map<String, Object> summary = new LinkedHashMap<>();
+			summary.put("count", histogram.count());
+			summary.put("p50", histogram.percentile(50));
+			summary.put("p90", histogram.percentile(90));
+			summary.put("p99", histogram.percentile(99));
+			summary.put("max", histogram.max());
+			summary.put("mean", histogram.mean());
+			results.put(entry.getKey(), summary);
+		}
+
+		out.printf("%nLatency is the fastest run of a batch of queries minus the fastest run with an empty query file,%n");
+		out.printf("divided by the number of queries in the batch.%n");
+		out.printf("The JSON output is in microseconds.%n%n");
+		out.flush();
+
+		String table = writer.toString();
+		System.out.print(table);
+
+		Files.writeString(ProjectPath.ACTUAL.resolve("bench-latency.md"), table);
+		Files.writeString(ProjectPath.ACTUAL.resolve("bench-latency.json"), ProjectJson.toJson(results));
+	}
+
+	/**
+	 * Returns the name used for output files for the query file and mode.
+	 *
+	 * @param path the query file
+	 * @param partial whether partial search is used
+	 * @return the name (e.g. "complex-partial")
+	 */
+	private static String name(ProjectPath path, boolean partial) {
+		String file = path.path.getFileName().toString().replace(".txt", "");
+		return file + "-" + (partial ? "partial" : "exact");
+	}
+}
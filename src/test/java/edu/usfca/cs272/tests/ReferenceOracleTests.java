@@ -0,0 +1,83 @@
+package edu.usfca.cs272.tests;
+
+import static edu.usfca.cs272.tests.utils.ProjectPath.ACTUAL;
+import static edu.usfca.cs272.tests.utils.ProjectPath.EXPECTED;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import edu.usfca.cs272.tests.utils.ProjectOracle;
+import edu.usfca.cs272.tests.utils.ProjectPath;
+import edu.usfca.cs272.tests.utils.ProjectTests;
+
+/**
+ * Checks the reference implementation that verifies the output of runs on the
+ * generated corpora against the expected output of the input text, so it can be
+ * trusted where there are no expected files. Does not run the driver.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+@Tag("oracle")
+public class ReferenceOracleTests extends ProjectTests {
+	/** Creates a new instance of this class. */
+	public ReferenceOracleTests() {}
+
+	/**
+	 * Generates the counts, index, exact search, and partial search output of the
+	 * input text with the reference implementation, and compares every file to
+	 * the expected output.
+	 *
+	 * @param query the query file
+	 * @throws IOException if unable to generate or compare the output
+	 */
+	@ParameterizedTest(name = "{0}")
+	@CsvSource({ "QUERY_WORDS", "QUERY_RESPECT", "QUERY_COMPLEX" })
+	public void testText(ProjectPath query) throws IOException {
+		ProjectPath input = ProjectPath.TEXT;
+		String name = query.path.getFileName().toString().replaceFirst("\\.txt$", "");
+
+		String countsName = String.format("counts-%s.json", input.id);
+		String indexName = String.format("index-%s.json", input.id);
+		String exactName = String.format("exact-%s-%s.json", name, input.id);
+		String partialName = String.format("partial-%s-%s.json", name, input.id);
+
+		Path directory = ACTUAL.resolve("oracle");
+		Map<Path, Path> files = Map.of(
+				directory.resolve(countsName), EXPECTED.resolve("counts").resolve(countsName),
+				directory.resolve(indexName), EXPECTED.resolve("index").resolve(indexName),
+				directory.resolve(exactName), EXPECTED.resolve("exact").resolve(exactName),
+				directory.resolve(partialName), EXPECTED.resolve("partial").resolve(partialName));
+
+		Files.createDirectories(directory);
+
+		Assertions.assertTimeoutPreemptively(LONG_TIMEOUT, () -> ProjectOracle.generate(input.path, query.path,
+				directory.resolve(countsName), directory.resolve(indexName),
+				directory.resolve(exactName), directory.resolve(partialName)));
+
+		List<Executable> tests = new ArrayList<>();
+
+		for (var entry : files.entrySet()) {
+			Path actual = entry.getKey();
+			Path expected = entry.getValue();
+
+			tests.add(() -> {
+				int count = compareFiles(actual, expected);
+				Assertions.assertTrue(count > 0, () -> String.format(
+						"Unexpected reference output on line %d%n\tat %s and%n\tat %s", -count, actual, expected));
+			});
+		}
+
+		Assertions.assertAll(tests);
+	}
+}
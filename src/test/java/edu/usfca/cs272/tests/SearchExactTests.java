@@ -26,7 +26,11 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestClassOrder;
 import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.api.parallel.ResourceLock;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 
@@ -40,6 +44,8 @@ import edu.usfca.cs272.tests.utils.ProjectTests;
  * @version Spring 2025
  */
 @TestClassOrder(ClassOrderer.OrderAnnotation.class)
+@Execution(ExecutionMode.CONCURRENT)
+@ExtendWith(ProjectTests.IsolatedOutput.class)
 public class SearchExactTests extends ProjectTests {
 	/** The default search mode for this nested class. */
 	public boolean partial;
@@ -237,6 +243,7 @@ public class SearchExactTests extends ProjectTests {
 	@Tag("past-v4")
 	@Tag("past-v5")
 	@TestMethodOrder(OrderAnnotation.class)
+	@ResourceLock(ProjectTests.DEFAULT_OUTPUT)
 	public class ExceptionTests {
 		/** Creates a new instance of this class. */
 		public ExceptionTests() {}
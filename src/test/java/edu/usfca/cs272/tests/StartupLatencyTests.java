@@ -0,0 +1,261 @@
+package edu.usfca.cs272.tests;
+
+import static edu.usfca.cs272.tests.utils.ProjectFlag.QUERY;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.RESULTS;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.TEXT;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import edu.usfca.cs272.tests.utils.ProjectBenchmarks;
+import edu.usfca.cs272.tests.utils.ProjectFlag;
+import edu.usfca.cs272.tests.utils.ProjectJson;
+import edu.usfca.cs272.tests.utils.ProjectPath;
+import edu.usfca.cs272.tests.utils.ProjectStartup;
+import edu.usfca.cs272.tests.utils.ProjectStartup.Classes;
+import edu.usfca.cs272.tests.utils.ProjectStartup.Launch;
+import edu.usfca.cs272.tests.utils.ProjectStatistics;
+
+/**
+ * A benchmark suite that launches the driver in a fresh JVM for small jobs,
+ * where most of the time is spent starting the JVM and loading classes. Reports
+ * the time until the output file is written, the process time, and the number
+ * of classes loaded (by library) both with the default JVM settings and with an
+ * AppCDS archive created from a training run first. The classes are counted in
+ * separate launches that are not timed, since logging them slows down the
+ * launch. The number of launches can
+ * be changed with the {@code bench.startup.rounds} setting, and the default
+ * launches can be limited with the {@code bench.budget.startup.ms} setting.
+ * Meant to be run with the benchmark profile only.
+ *
+ * THESE ARE VERY SLOW TESTS. AVOID RUNNING UNLESS REALLY NEEDED.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+@Tag("benchmark")
+@Tag("bench-startup")
+public class StartupLatencyTests extends ProjectBenchmarks {
+	/** The number of launches with and without the archive per job. */
+	public static final int STARTUP_ROUNDS = setting("bench.startup.rounds", 10);
+
+	/** The maximum median time in milliseconds until the output without the archive (or 0 to skip). */
+	public static final int BUDGET_STARTUP = setting("bench.budget.startup.ms", 0);
+
+	/** Amount of time to wait for every launch of a single job to finish. */
+	public static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(15);
+
+	/** The directory for the packed classpath, the archive, and output files. */
+	private static Path directory = null;
+
+	/** The packed classpath shared by every launch. */
+	private static String classpath = null;
+
+	/** The flag to launch with the archive. */
+	private static String archive = null;
+
+	/** The median launches of every job that finished, with and without the archive. */
+	private static final Map<String, Launch[]> launches = new LinkedHashMap<>();
+
+	/** The classes loaded by every job that finished, with and without the archive. */
+	private static final Map<String, Classes[]> loaded = new LinkedHashMap<>();
+
+	/** Creates a new instance of this class. */
+	public StartupLatencyTests() {}
+
+	/**
+	 * Packs the classpath and creates the archive from a training run.
+	 *
+	 * @throws Exception if unable to create the archive
+	 */
+	@BeforeAll
+	public static void createArchive() throws Exception {
+		directory = Files.createTempDirectory("startup-");
+		classpath = ProjectStartup.classpath(directory);
+
+		Path training = Files.createDirectories(directory.resolve("training"));
+		archive = ProjectStartup.archive(directory.resolve("driver.jsa"), classpath, ProjectStartup.training(training));
+	}
+
+	/**
+	 * Benchmarks launching the driver for a small job with the output flag,
+	 * alternating between launches with and without the archive, and then counts
+	 * the classes loaded in one more untimed launch of each.
+	 *
+	 * @param flag the output flag
+	 */
+	@ParameterizedTest(name = "{0}")
+	@ValueSource(strings = { "COUNTS", "INDEX", "RESULTS" })
+	public void testStartup(ProjectFlag flag) {
+		String output = flag.name().toLowerCase(Locale.ROOT);
+		Path file = directory.resolve(flag.value);
+
+		String[] args = flag == RESULTS ?
+				new String[] { TEXT.flag, ProjectPath.HELLO.text, QUERY.flag, ProjectPath.QUERY_SIMPLE.text, flag.flag, file.toString() } :
+				new String[] { TEXT.flag, ProjectPath.HELLO.text, flag.flag, file.toString() };
+
+		// make sure code runs without exceptions before testing
+		assertNoExceptions(args, SHORT_TIMEOUT);
+
+		assertTimeoutPreemptively(STARTUP_TIMEOUT, () -> {
+			Launch[] plain = new Launch[Math.max(1, STARTUP_ROUNDS)];
+			Launch[] shared = new Launch[plain.length];
+
+			// alternate so that any drift in the machine affects both equally
+			for (int i = 0; i < plain.length; i++) {
+				plain[i] = ProjectStartup.launch(List.of(), classpath, file, args, LONG_TIMEOUT);
+				shared[i] = ProjectStartup.launch(List.of(archive), classpath, file, args, LONG_TIMEOUT);
+			}
+
+			Classes without = ProjectStartup.classes(List.of(), classpath, args, LONG_TIMEOUT);
+			Classes with = ProjectStartup.classes(List.of(archive), classpath, args, LONG_TIMEOUT);
+			Files.deleteIfExists(file);
+
+			Launch before = median(plain);
+			Launch after = median(shared);
+			launches.put(output, new Launch[] { before, after });
+			loaded.put(output, new Classes[] { without, with });
+
+			System.out.printf("%s: %.1f ms until output (%d classes not shared) without the archive, %.1f ms (%d not shared) with it%n",
+					output, before.first() / 1e6, without.classes() - without.shared(),
+					after.first() / 1e6, with.classes() - with.shared());
+
+			Assertions.assertAll(
+					() -> Assertions.assertTrue(with.classes() - with.shared() < without.classes() - without.shared(),
+							debug("The archive was not used (%d classes not shared with it, %d without it).",
+									with.classes() - with.shared(), without.classes() - without.shared())),
+					() -> Assertions.assertTrue(BUDGET_STARTUP <= 0 || before.first() / 1e6 <= BUDGET_STARTUP,
+							debug("%s took %.1f ms until output (more than the %d ms budget).", output, before.first() / 1e6, BUDGET_STARTUP)));
+		});
+	}
+
+	/**
+	 * Returns the median time until output and the median process time of all
+	 * the launches.
+	 *
+	 * @param launches the launches
+	 * @return the median launch
+	 */
+	private static Launch median(Launch[] launches) {
+		long[] first = new long[launches.length];
+		long[] process = new long[launches.length];
+
+		for (int i = 0; i < launches.length; i++) {
+			first[i] = launches[i].first();
+			process[i] = launches[i].process();
+		}
+
+		return new Launch((long) ProjectStatistics.median(process), (long) ProjectStatistics.median(first));
+	}
+
+	/**
+	 * Deletes the archive and outputs the startup times as a markdown table and
+	 * as machine-readable JSON.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@AfterAll
+	public static void outputStartup() throws IOException {
+		if (directory != null) {
+			try (Stream<Path> listing = Files.walk(directory)) {
+				for (Path path : listing.sorted(Comparator.reverseOrder()).toList()) {
+					Files.deleteIfExists(path);
+				}
+			}
+		}
+
+		if (launches.isEmpty()) {
+			return;
+		}
+
+		StringWriter writer = new StringWriter();
+		PrintWriter out = new PrintWriter(writer);
+
+		out.printf("%n## Startup Latency - median of %d launches%n%n", STARTUP_ROUNDS);
+		out.printf("| Job | Archive | Output (ms) | Process (ms) | Classes | Shared | %s |%n",
+				String.join(" | ", loaded.values().iterator().next()[0].libraries().keySet()));
+		out.printf("|:----|:--------|------------:|-------------:|--------:|-------:|%s%n",
+				"--------:|".repeat(loaded.values().iterator().next()[0].libraries().size()));
+
+		Map<String, Object> results = new LinkedHashMap<>();
+
+		for (var entry : launches.entrySet()) {
+			Launch before = entry.getValue()[0];
+			Launch after = entry.getValue()[1];
+			Classes[] classes = loaded.get(entry.getKey());
+
+			for (int i = 0; i < 2; i++) {
+				Launch launch = entry.getValue()[i];
+
+				out.printf("| %-7s | %-7s | %11.1f | %12.1f | %7d | %6d | %s |%n", entry.getKey(),
+						i == 0 ? "no" : "yes", launch.first() / 1e6, launch.process() / 1e6,
+						classes[i].classes(), classes[i].shared(), String.join(" | ",
+								classes[i].libraries().values().stream().map(String::valueOf).toList()));
+			}
+
+			Map<String, Object> summary = new LinkedHashMap<>();
+			summary.put("before", launch(before, classes[0]));
+			summary.put("after", launch(after, classes[1]));
+			summary.put("deltaFirstMillis", (before.first() - after.first()) / 1e6);
+			summary.put("deltaProcessMillis", (before.process() - after.process()) / 1e6);
+			results.put(entry.getKey(), summary);
+		}
+
+		out.printf("%n| Job | Output Delta (ms) | Process Delta (ms) |%n");
+		out.printf("|:----|------------------:|-------------------:|%n");
+
+		for (var entry : launches.entrySet()) {
+			Launch before = entry.getValue()[0];
+			Launch after = entry.getValue()[1];
+
+			out.printf("| %-7s | %17.1f | %18.1f |%n", entry.getKey(),
+					(before.first() - after.first()) / 1e6, (before.process() - after.process()) / 1e6);
+		}
+
+		out.printf("%nOutput is the time from launch until the output file exists. Shared classes are mapped from%n");
+		out.printf("a class data sharing archive (the default JDK archive without AppCDS). Deltas are the time%n");
+		out.printf("saved by the AppCDS archive. Classes are counted in separate launches that are not timed.%n%n");
+		out.flush();
+
+		String table = writer.toString();
+		System.out.print(table);
+
+		Files.writeString(ProjectPath.ACTUAL.resolve("bench-startup.md"), table);
+		Files.writeString(ProjectPath.ACTUAL.resolve("bench-startup.json"), ProjectJson.toJson(results));
+	}
+
+	/**
+	 * Returns the measurements of a launch as machine-readable values.
+	 *
+	 * @param launch the timings of the launch
+	 * @param classes the classes loaded by the launch
+	 * @return the measurements
+	 */
+	private static Map<String, Object> launch(Launch launch, Classes classes) {
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("firstNanos", launch.first());
+		summary.put("processNanos", launch.process());
+		summary.put("classes", classes.classes());
+		summary.put("shared", classes.shared());
+		summary.put("libraries", classes.libraries());
+		return summary;
+	}
+}
@@ -8,12 +8,10 @@ import static edu.usfca.cs272.tests.utils.ProjectPath.ACTUAL;
 import static edu.usfca.cs272.tests.utils.ProjectPath.EXPECTED;
 import static edu.usfca.cs272.tests.utils.ProjectPath.HELLO;
 import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
-import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
-import java.util.function.Supplier;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
@@ -34,6 +32,7 @@ import org.junit.jupiter.params.provider.EnumSource;
 
 import edu.usfca.cs272.tests.utils.ProjectBenchmarks;
 import edu.usfca.cs272.tests.utils.ProjectPath;
+import edu.usfca.cs272.tests.utils.ProjectStatistics.Speedup;
 import edu.usfca.cs272.tests.utils.ProjectTests;
 
 /**
@@ -522,9 +521,8 @@ public class ThreadBuildTests extends ProjectBenchmarks {
 
 		// then test the timing
 		assertTimeoutPreemptively(LONG_TIMEOUT, () -> {
-			double result = compare("Build", "1 Worker", args1, threads + " Workers", args2);
-			Supplier<String> debug = () -> String.format(format, threads, result, target, "1 worker");
-			assertTrue(result >= target, debug);
+			Speedup result = compare("Build", "1 Worker", args1, threads + " Workers", args2);
+			assertSpeedup(result, target, threads, "1 worker");
 		});
 	}
 
@@ -553,9 +551,8 @@ public class ThreadBuildTests extends ProjectBenchmarks {
 
 		// then test the timing
 		assertTimeoutPreemptively(LONG_TIMEOUT, () -> {
-			double result = compare("Build", "Single", args1, threads + " Workers", args2);
-			Supplier<String> debug = () -> String.format(format, threads, result, target, "single-threading");
-			assertTrue(result >= target, debug);
+			Speedup result = compare("Build", "Single", args1, threads + " Workers", args2);
+			assertSpeedup(result, target, threads, "single-threading");
 		});
 	}
 }
@@ -0,0 +1,112 @@
+package edu.usfca.cs272.tests;
+
+import static edu.usfca.cs272.tests.utils.ProjectFlag.PARTIAL;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.QUERY;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.TEXT;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.THREADS;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import edu.usfca.cs272.tests.utils.ProjectBenchmarks;
+
+/**
+ * A benchmark suite that sweeps the number of worker threads from 1 up to
+ * twice the number of available processors (or {@code bench.scale.max} if
+ * set), and reports the speedup, parallel efficiency, and fitted serial
+ * fraction for building and partial searching. Fails if the fitted serial
+ * fraction is above {@code bench.scale.max.serial} percent (if set). Meant to
+ * be run with the benchmark profile only.
+ *
+ * THESE ARE VERY SLOW TESTS. AVOID RUNNING UNLESS REALLY NEEDED.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+@Tag("benchmark")
+@Tag("bench-scale")
+@TestMethodOrder(OrderAnnotation.class)
+public class ThreadScaleTests extends ProjectBenchmarks {
+	/** The maximum number of worker threads to sweep. */
+	public static final int MAX_WORKERS = setting("bench.scale.max", Runtime.getRuntime().availableProcessors() * 2);
+
+	/** The number of timed rounds per number of worker threads. */
+	public static final int SCALE_ROUNDS = setting("bench.scale.rounds", 5);
+
+	/** The maximum fitted serial fraction as a percent (or 0 to only report it). */
+	public static final int MAX_SERIAL = setting("bench.scale.max.serial", 0);
+
+	/** Amount of time to wait for a full sweep to finish. */
+	public static final Duration SCALE_TIMEOUT = Duration.ofMinutes(60);
+
+	/** Creates a new instance of this class. */
+	public ThreadScaleTests() {}
+
+	/**
+	 * Sweeps building the index from the text input directory.
+	 *
+	 * @throws IOException if unable to generate the benchmark corpus
+	 */
+	@Test
+	@Order(1)
+	public void scaleBuild() throws IOException {
+		String text = corpus();
+		IntFunction<String[]> args = workers -> new String[] {
+				TEXT.flag, text, THREADS.flag, String.valueOf(workers)
+		};
+
+		testScale("Build", args);
+	}
+
+	/**
+	 * Sweeps building the index from the text input directory and partial
+	 * searching the complex queries.
+	 *
+	 * @throws IOException if unable to generate the benchmark corpus
+	 */
+	@Test
+	@Order(2)
+	public void scaleSearch() throws IOException {
+		String text = corpus();
+		String queries = queries();
+		IntFunction<String[]> args = workers -> new String[] {
+				TEXT.flag, text, QUERY.flag, queries,
+				PARTIAL.flag, THREADS.flag, String.valueOf(workers)
+		};
+
+		testScale("Search", args);
+	}
+
+	/**
+	 * Makes sure the code runs without exceptions at both ends of the sweep (and
+	 * produces the reference output for a generated corpus), and then benchmarks
+	 * the full sweep.
+	 *
+	 * @param file the file name to use to save output
+	 * @param args the arguments to use for a given number of worker threads
+	 */
+	public static void testScale(String file, IntFunction<String[]> args) {
+		int[] workers = sweep(MAX_WORKERS);
+
+		// make sure code runs without exceptions before testing
+		assertNoExceptions(args.apply(workers[0]), corpusTimeout(SHORT_TIMEOUT));
+		assertNoExceptions(args.apply(workers[workers.length - 1]), corpusTimeout(SHORT_TIMEOUT));
+		assertOracle(file, args.apply(workers[workers.length - 1]));
+
+		// then sweep the timing
+		assertTimeoutPreemptively(SCALE_TIMEOUT, () -> {
+			double serial = scale(file, args, workers, SCALE_ROUNDS);
+			Assertions.assertTrue(MAX_SERIAL <= 0 || serial * 100 <= MAX_SERIAL, debug(
+					"%s has a fitted serial fraction of %.1f%% (more than the %d%% allowed).", file, serial * 100, MAX_SERIAL));
+		});
+	}
+}
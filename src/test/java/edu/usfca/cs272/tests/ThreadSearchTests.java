@@ -13,12 +13,10 @@ import static edu.usfca.cs272.tests.utils.ProjectPath.HELLO;
 import static edu.usfca.cs272.tests.utils.ProjectPath.QUERY_COMPLEX;
 import static edu.usfca.cs272.tests.utils.ProjectPath.QUERY_SIMPLE;
 import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
-import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
-import java.util.function.Supplier;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
@@ -41,6 +39,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import edu.usfca.cs272.tests.utils.ProjectBenchmarks;
 import edu.usfca.cs272.tests.utils.ProjectPath;
+import edu.usfca.cs272.tests.utils.ProjectStatistics.Speedup;
 import edu.usfca.cs272.tests.utils.ProjectTests;
 
 /**
@@ -526,9 +525,8 @@ public class ThreadSearchTests extends ProjectBenchmarks {
 
 		// then test the timing
 		assertTimeoutPreemptively(LONG_TIMEOUT, () -> {
-			double result = compare("Search", "1 Worker", args1, threads + " Workers", args2);
-			Supplier<String> debug = () -> String.format(format, threads, result, target, "1 worker");
-			assertTrue(result >= target, debug);
+			Speedup result = compare("Search", "1 Worker", args1, threads + " Workers", args2);
+			assertSpeedup(result, target, threads, "1 worker");
 		});
 	}
 
@@ -561,9 +559,8 @@ public class ThreadSearchTests extends ProjectBenchmarks {
 
 		// then test the timing
 		assertTimeoutPreemptively(LONG_TIMEOUT, () -> {
-			double result = compare("Search", "Single", args1, threads + " Workers", args2);
-			Supplier<String> debug = () -> String.format(format, threads, result, target, "single-threading");
-			assertTrue(result >= target, debug);
+			Speedup result = compare("Search", "Single", args1, threads + " Workers", args2);
+			assertSpeedup(result, target, threads, "single-threading");
 		});
 	}
 }
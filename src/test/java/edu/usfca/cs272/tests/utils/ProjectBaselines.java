@@ -0,0 +1,307 @@
+package edu.usfca.cs272.tests.utils;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.function.Executable;
+
+import edu.usfca.cs272.tests.utils.ProjectStatistics.Speedup;
+
+/**
+ * Stores machine-readable benchmark results tagged with the current commit of
+ * the project being tested, and checks for regressions against the results
+ * stored for the nearest ancestor commit. Baselines are stored as
+ * {@code baseline/<commit>/<benchmark>.json} and are only saved when the
+ * {@code bench.baseline.save} setting is true. Wall-clock times are only
+ * comparable on the same machine, so baselines recorded on a different host or
+ * with a different number of processors are never used to gate a run.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+public class ProjectBaselines {
+	/** The directory with the stored baselines. */
+	public static final Path STORE = Path.of(ProjectTests.setting("bench.baseline", ProjectPath.BASELINE.text));
+
+	/** The maximum percent a benchmark may be slower than its baseline. */
+	public static final int REGRESSION = ProjectTests.setting("bench.regression", 10);
+
+	/** The maximum number of ancestor commits to search for a baseline. */
+	public static final int MAX_ANCESTORS = 500;
+
+	/** Used when the commit is unknown (e.g. no git repository found). */
+	public static final String UNKNOWN = "unknown";
+
+	/** The current commit and its ancestors, loaded when first needed. */
+	private static List<String> commits = null;
+
+	/** Whether there are uncommitted changes, checked when first needed. */
+	private static Boolean dirty = null;
+
+	/** The name of this host, looked up when first needed. */
+	private static String host = null;
+
+	/**
+	 * Creates the machine-readable results for a benchmark.
+	 *
+	 * @param name the benchmark name
+	 * @param runs the timed runs in milliseconds for each label
+	 * @param speedup the speedup of the last label over the first
+	 * @return the results
+	 */
+	public static Map<String, Object> results(String name, Map<String, long[]> runs, Speedup speedup) {
+		List<String> commits = commits();
+
+		Map<String, Object> results = new LinkedHashMap<>();
+		results.put("benchmark", name);
+		results.put("commit", commits.isEmpty() ? UNKNOWN : commits.getFirst());
+		results.put("dirty", dirty());
+		results.put("timestamp", Instant.now().toString());
+		results.put("host", host());
+		results.put("processors", Runtime.getRuntime().availableProcessors());
+
+		Map<String, Object> labels = new LinkedHashMap<>();
+
+		for (var entry : runs.entrySet()) {
+			long[] millis = entry.getValue();
+
+			Map<String, Object> summary = new LinkedHashMap<>();
+			summary.put("median", ProjectStatistics.median(millis));
+			summary.put("p90", ProjectStatistics.percentile(millis, 90));
+			summary.put("mean", ProjectStatistics.mean(millis));
+			summary.put("stddev", ProjectStatistics.stddev(millis));
+			summary.put("minimum", ProjectStatistics.percentile(millis, 0));
+			summary.put("millis", millis);
+
+			labels.put(entry.getKey(), summary);
+		}
+
+		results.put("runs", labels);
+
+		if (speedup != null) {
+			Map<String, Object> interval = new LinkedHashMap<>();
+			interval.put("estimate", speedup.estimate());
+			interval.put("lower", speedup.lower());
+			interval.put("upper", speedup.upper());
+			interval.put("confidence", speedup.confidence());
+			results.put("speedup", interval);
+		}
+
+		return results;
+	}
+
+	/**
+	 * Saves the results as JSON in the actual output directory, and in the
+	 * baseline store for the current commit if enabled.
+	 *
+	 * @param name the benchmark name
+	 * @param results the results to save
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static void save(String name, Map<String, Object> results) throws IOException {
+		String json = ProjectJson.toJson(results);
+		Files.writeString(ProjectPath.ACTUAL.resolve(name + ".json"), json);
+
+		Object commit = results.get("commit");
+
+		if (Boolean.parseBoolean(ProjectTests.setting("bench.baseline.save", "false")) && !UNKNOWN.equals(commit)) {
+			Path baseline = STORE.resolve(commit.toString()).resolve(name + ".json");
+			Files.createDirectories(baseline.getParent());
+			Files.writeString(baseline, json);
+			System.out.printf("Saved baseline: %s%n", baseline);
+		}
+	}
+
+	/**
+	 * Finds the stored baseline for the nearest ancestor of the current commit.
+	 * The current commit itself is skipped so that a benchmark is never
+	 * compared against its own results.
+	 *
+	 * @param name the benchmark name
+	 * @return the baseline or null if none was found
+	 */
+	public static Path ancestor(String name) {
+		List<String> commits = commits();
+
+		for (String commit : commits.subList(Math.min(1, commits.size()), commits.size())) {
+			Path baseline = STORE.resolve(commit).resolve(name + ".json");
+
+			if (Files.isReadable(baseline)) {
+				return baseline;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Asserts no label of the benchmark has a median runtime more than
+	 * {@link #REGRESSION} percent slower than the stored baseline for the
+	 * nearest ancestor commit. Passes if there is no such baseline, or if the
+	 * baseline was recorded on a different host or with a different number of
+	 * processors than this run.
+	 *
+	 * @param name the benchmark name
+	 * @param runs the timed runs in milliseconds for each label
+	 * @throws IOException if unable to read the baseline
+	 */
+	public static void assertNoRegression(String name, Map<String, long[]> runs) throws IOException {
+		Path path = ancestor(name);
+
+		if (path == null) {
+			System.out.printf("No baseline found for %s; skipping regression check.%n", name);
+			return;
+		}
+
+		Object baseline = ProjectJson.parse(Files.readString(path));
+		Object recorded = ProjectJson.get(baseline, "host");
+		Object processors = ProjectJson.get(baseline, "processors");
+		int available = Runtime.getRuntime().availableProcessors();
+
+		if (UNKNOWN.equals(recorded) || !host().equals(recorded) || !(processors instanceof Number count) || count.intValue() != available) {
+			System.out.printf("Baseline for %s at %s is from %s with %s processors, not %s with %d; skipping regression check.%n",
+					name, path.getParent().getFileName(), recorded, processors, host(), available);
+			return;
+		}
+
+		List<Executable> checks = new ArrayList<>();
+
+		for (var entry : runs.entrySet()) {
+			String label = entry.getKey();
+
+			if (ProjectJson.get(baseline, "runs", label, "median") instanceof Double previous) {
+				double current = ProjectStatistics.median(entry.getValue());
+				double limit = previous * (1 + REGRESSION / 100.0);
+
+				System.out.printf("%s %s: %.0f ms versus %.0f ms baseline at %s%n",
+						name, label, current, previous, path.getParent().getFileName());
+
+				checks.add(() -> Assertions.assertTrue(current <= limit, ProjectTests.debug(
+						"%s with %s regressed to %.0f ms from %.0f ms at %s (more than %d%% slower).",
+						name, label, current, previous, path.getParent().getFileName(), REGRESSION)));
+			}
+		}
+
+		Assertions.assertAll(checks);
+	}
+
+	/**
+	 * Returns the current commit of the project being tested followed by its
+	 * ancestors, most recent first. The commits are only walked the first time
+	 * this is called, since they do not change while the tests run.
+	 *
+	 * @return the commit ids or an empty list if unavailable
+	 */
+	public static synchronized List<String> commits() {
+		if (commits == null) {
+			commits = List.copyOf(walk());
+		}
+
+		return commits;
+	}
+
+	/**
+	 * Walks the current commit of the project being tested and its ancestors,
+	 * most recent first.
+	 *
+	 * @return the commit ids or an empty list if unavailable
+	 */
+	private static List<String> walk() {
+		List<String> commits = new ArrayList<>();
+
+		try (Repository repository = ProjectTests.gitRepository()) {
+			ObjectId head = repository == null ? null : repository.resolve(Constants.HEAD);
+
+			if (head != null) {
+				try (RevWalk walk = new RevWalk(repository)) {
+					walk.markStart(walk.parseCommit(head));
+
+					for (RevCommit commit : walk) {
+						commits.add(commit.getName());
+
+						if (commits.size() >= MAX_ANCESTORS) {
+							break;
+						}
+					}
+				}
+			}
+		}
+		catch (IOException | URISyntaxException e) {
+			System.err.printf("Unable to read commits: %s%n", e.getMessage());
+		}
+
+		return commits;
+	}
+
+	/**
+	 * Returns the name of this host, which is stored with the results since
+	 * timings from different machines cannot be compared. The name is only
+	 * looked up the first time this is called.
+	 *
+	 * @return the host name or {@link #UNKNOWN} if unavailable
+	 */
+	public static synchronized String host() {
+		if (host == null) {
+			try {
+				host = InetAddress.getLocalHost().getHostName();
+			}
+			catch (IOException e) {
+				host = UNKNOWN;
+			}
+		}
+
+		return host;
+	}
+
+	/**
+	 * Determines whether the project being tested has uncommitted changes, in
+	 * which case results are not exactly those of the current commit. The status
+	 * is only checked the first time this is called.
+	 *
+	 * @return true if there are uncommitted changes
+	 */
+	public static synchronized boolean dirty() {
+		if (dirty == null) {
+			dirty = status();
+		}
+
+		return dirty;
+	}
+
+	/**
+	 * Checks the status of the project being tested for uncommitted changes.
+	 *
+	 * @return true if there are uncommitted changes
+	 */
+	private static boolean status() {
+		try (
+			Repository repository = ProjectTests.gitRepository();
+			Git git = repository == null ? null : new Git(repository);
+		) {
+			return git != null && git.status().call().hasUncommittedChanges();
+		}
+		catch (IOException | URISyntaxException | GitAPIException e) {
+			return false;
+		}
+	}
+
+	/** Prevent instantiating this class of static methods. */
+	private ProjectBaselines() {
+	}
+}
@@ -1,34 +1,56 @@
 package edu.usfca.cs272.tests.utils;
 
+import static edu.usfca.cs272.tests.utils.ProjectFlag.COUNTS;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.INDEX;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.PARTIAL;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.QUERY;
+import static edu.usfca.cs272.tests.utils.ProjectFlag.RESULTS;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.core.config.Configurator;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.parallel.Isolated;
 
 import edu.usfca.cs272.Driver;
+import edu.usfca.cs272.tests.utils.ProjectRecordings.Concurrency;
+import edu.usfca.cs272.tests.utils.ProjectStatistics.Speedup;
 
 /**
- * Utility methods used by other JUnit test classes.
+ * Utility methods used by other JUnit test classes. Test classes that extend
+ * this class are isolated, so they never run in parallel with other tests and
+ * the timing results stay clean.
  *
  * @author CS 272 Software Development (University of San Francisco)
  * @version Spring 2025
  */
+@Isolated
 public class ProjectBenchmarks extends ProjectTests {
 	/** The system environment. */
 	public static final Map<String, String> ENV = System.getenv();
@@ -38,82 +60,89 @@ public class ProjectBenchmarks extends ProjectTests {
 			&& Boolean.parseBoolean(ENV.get("GITHUB_ACTIONS"));
 
 	/** The number of rounds to use when benchmarking. */
-	public static final int TIMED_ROUNDS = GITHUB ? 10 : 15;
+	public static final int TIMED_ROUNDS = setting("bench.rounds", GITHUB ? 10 : 15);
 
-	/** Format string used for debug output. */
-	public static final String format = "%d workers has a %.2fx speedup (less than the %.1fx required) compared to %s.";
+	/** The number of untimed warmup rounds to use before benchmarking. */
+	public static final int WARMUP_ROUNDS = setting("bench.warmup", GITHUB ? 2 : 3);
 
 	/**
-	 * Attempts to test that multiple threads are being used in this code.
-	 *
-	 * @param action the action to run
+	 * The minimum average number of worker threads running at the same time (or
+	 * 0 to only report it). Samples only see threads running Java code, so
+	 * workers blocked on file or socket I/O look idle, which is why this is not
+	 * enforced by default.
 	 */
-	public static void assertMultithreaded(Runnable action) {
-		Assertions.assertTimeoutPreemptively(ProjectTests.LONG_TIMEOUT, () -> {
-			Set<String> before = new HashSet<>(); // threads before
-			Set<String> after = new HashSet<>();  // threads after
-
-			CountDownLatch started = new CountDownLatch(1);  // driver started
-			CountDownLatch finished = new CountDownLatch(1); // driver finished
+	public static final double MIN_WORKERS = Double.parseDouble(setting("bench.min.workers", "0"));
 
-			// setup thread to trigger latch when starts
-			Thread driver = new Thread(() -> {
-				// set before threads after this one has started
-				before.addAll(activeThreads());
+	/** How often to sample which worker threads are running. */
+	public static final Duration SAMPLE_PERIOD = Duration.ofMillis(setting("bench.sample.ms", 10));
 
-				// indicate the code should now continue
-				started.countDown();
-				action.run();
-				finished.countDown();
-			});
+	/** The minimum number of sampled periods before judging concurrency. */
+	public static final int MIN_PERIODS = setting("bench.min.periods", 5);
 
-			driver.setPriority(Thread.MAX_PRIORITY);
-
-			driver.start();
-			started.await();
+	/**
+	 * The name of the text to build from in the opt-in benchmark suites, which
+	 * can be a generated corpus (e.g. {@code -Dbench.corpus=GENERATED_MEDIUM}).
+	 * The checks that run the driver once before benchmarking (and the check
+	 * against the reference output) allow {@link #CORPUS_MS_PER_MB} more
+	 * milliseconds per megabyte of a generated corpus. The timeouts of the full
+	 * sweeps and matrices are not scaled, so the medium and large corpora usually
+	 * need fewer rounds or longer timeouts.
+	 *
+	 * @see #benchCorpus()
+	 * @see #corpusTimeout(Duration)
+	 */
+	public static final String BENCH_CORPUS = setting("bench.corpus", "TEXT");
 
-			// add current active threads
-			after.addAll(activeThreads());
+	/** The extra time in milliseconds allowed per megabyte of a generated corpus. */
+	public static final int CORPUS_MS_PER_MB = setting("bench.corpus.ms.per.mb", 1000);
 
-			// an intentional busy-wait loop (slow, but helps catch all possible worker threads)
-			while (!finished.await(100, TimeUnit.MILLISECONDS)) {
-				after.addAll(activeThreads());
-			}
+	/** Format string used for debug output. */
+	public static final String format = "%d workers has a %.2fx speedup (%.0f%% interval %.2fx to %.2fx, with a lower bound less than the %.1fx required) compared to %s.";
 
-			// wait for driver to terminate (might already be at this state)
-			after.addAll(activeThreads());
-			driver.join();
+	/**
+	 * Attempts to test that multiple threads are being used in this code, and
+	 * reports how many of them run concurrently on average. Only fails on too
+	 * little concurrency if the {@code bench.min.workers} setting is positive.
+	 *
+	 * @param action the action to run
+	 *
+	 * @see #assertMultithreaded(Runnable, double)
+	 */
+	public static void assertMultithreaded(Runnable action) {
+		assertMultithreaded(action, MIN_WORKERS);
+	}
 
-			// try to figure out which ones are worker threads
-			Set<String> workers = new HashSet<>(after);
-			workers.removeAll(before); // remove threads running this code
-			workers.removeIf(name -> name.startsWith("junit")); // remove junit timeout threads
-			workers.removeIf(name -> name.startsWith("ForkJoinPool")); // remove other junit threads
+	/**
+	 * Attempts to test that multiple threads are being used in this code. Every
+	 * thread started (directly or indirectly) by the action is tracked using
+	 * flight recorder thread events, and the worker threads are sampled every
+	 * {@link #SAMPLE_PERIOD} to determine how many were running at the same
+	 * time.
+	 *
+	 * @param action the action to run
+	 * @param minimum the minimum average number of running workers (or 0 to skip)
+	 */
+	public static void assertMultithreaded(Runnable action, double minimum) {
+		Assertions.assertTimeoutPreemptively(ProjectTests.LONG_TIMEOUT, () -> {
+			Concurrency result = ProjectRecordings.concurrency(action, SAMPLE_PERIOD);
+			Collection<String> workers = result.workers().values();
 
 			System.out.println("Workers: " + workers);
+			System.out.println("Concurrency: " + result);
 
 			String message = "Unable to detect any worker threads. Are you 100% positive threads are being created and used in your code? You can debug this by producing log output inside the run method of your thread objects. This is an imperfect test; if you are able to verify threads are being created and used, make a private post on the course forum. The instructor will look into the problem.";
-			String format = "\nThreads Before: %s\nThreads After: %s\nWorker Threads: %s\n\n%s\n\n";
-			Assertions.assertTrue(workers.size() > 0, ProjectTests.debug(format, before, after, workers, message));
+			String format = "\nWorker Threads: %s\n\n%s\n\n";
+			Assertions.assertTrue(workers.size() > 0, ProjectTests.debug(format, workers, message));
+
+			// only judge concurrency if the workers were sampled long enough
+			if (minimum > 0 && result.active() >= MIN_PERIODS) {
+				String concurrent = "Only %.2f worker threads were running at the same time on average (at least %.2f required, peak %d). Worker threads may be waiting on each other (e.g. holding a lock for too long) instead of running in parallel.\n\nWorker Threads: %s\n";
+				Assertions.assertTrue(result.average() >= minimum, ProjectTests.debug(concurrent,
+						result.average(), minimum, result.peak(), workers));
+			}
 		});
 	}
 
-	/**
-	 * Returns the active thread names (approximate).
-	 *
-	 * @return the active thread names
-	 */
-	public static List<String> activeThreads() {
-		int active = Thread.activeCount(); // only an estimate
-		Thread[] threads = new Thread[active * 2]; // make sure large enough
-		Thread.enumerate(threads); // fill in active threads
-
-		return Arrays.stream(threads)
-				.filter(t -> t != null)
-				.map(Thread::getName)
-				.toList();
-	}
-
 	/**
 	 * Compares the runtime using two different sets of arguments. Outputs the
 	 * runtimes to the console just in case there are any anomalies.
@@ -123,10 +152,10 @@ public class ProjectBenchmarks extends ProjectTests {
 	 * @param args1 the first argument set
 	 * @param label2 the label of the second argument set
 	 * @param args2 the second argument set
-	 * @return the runtime difference between the first and second set of arguments
+	 * @return the speedup of the second set of arguments over the first
 	 * @throws IOException if an I/O error occurs
 	 */
-	public static double compare(String file, String label1, String[] args1, String label2, String[] args2)
+	public static Speedup compare(String file, String label1, String[] args1, String label2, String[] args2)
 			throws IOException {
 		return compare(file, label1, args1, label2, args2, TIMED_ROUNDS);
 	}
@@ -141,24 +170,28 @@ public class ProjectBenchmarks extends ProjectTests {
 	 * @param label2 the label of the second argument set
 	 * @param args2 the second argument set
 	 * @param timeRuns the number of timed runs to use
-	 * @return the runtime difference between the first and second set of arguments
+	 * @return the speedup of the second set of arguments over the first
 	 * @throws IOException if an I/O error occurs
 	 */
-	public static double compare(String file, String label1, String[] args1, String label2, String[] args2, int timeRuns) throws IOException {
+	public static Speedup compare(String file, String label1, String[] args1, String label2, String[] args2, int timeRuns) throws IOException {
 		Configurator.setAllLevels(LogManager.getRootLogger().getName(), Level.OFF);
 
 		// free up memory before benchmarking
 		ProjectTests.freeMemory();
 
-		// begin benchmarking
-		long[] runs1 = benchmark(args1, timeRuns);
-		long[] runs2 = benchmark(args2, timeRuns);
+		String test = label1.equals("Single") ? "single" : "multi";
+		String format = "bench-%s-%s";
+		String name = String.format(format, file.toLowerCase(), test);
 
-		long total1 = 0;
-		long total2 = 0;
+		// begin benchmarking (recording each set of runs with flight recorder)
+		Path jfr1 = ProjectRecordings.path(name, label1);
+		Path jfr2 = ProjectRecordings.path(name, label2);
 
-		long min1 = Long.MAX_VALUE;
-		long min2 = Long.MAX_VALUE;
+		Run[] results1 = ProjectRecordings.record(jfr1, () -> benchmark(args1, WARMUP_ROUNDS, timeRuns));
+		Run[] results2 = ProjectRecordings.record(jfr2, () -> benchmark(args2, WARMUP_ROUNDS, timeRuns));
+
+		long[] runs1 = Run.values(results1, Run::millis);
+		long[] runs2 = Run.values(results2, Run::millis);
 
 		StringWriter writer = new StringWriter();
 		PrintWriter out = new PrintWriter(writer);
@@ -172,59 +205,530 @@ public class ProjectBenchmarks extends ProjectTests {
 		out.printf(labelFormat, "Round", label1, label2);
 
 		for (int i = 0; i < timeRuns; i++) {
-			total1 += runs1[i];
-			total2 += runs2[i];
+			out.printf(valueFormat, i + 1, seconds(runs1[i]), seconds(runs2[i]));
+		}
 
-			min1 = Math.min(min1, runs1[i]);
-			min2 = Math.min(min2, runs2[i]);
+		out.println();
+		out.printf("%d warmup rounds (not shown) before %d timed rounds%n%n", WARMUP_ROUNDS, timeRuns);
 
-			out.printf(valueFormat, i + 1, (double) runs1[i] / Duration.ofSeconds(1).toMillis(),
-					(double) runs2[i] / Duration.ofSeconds(1).toMillis());
-		}
+		String statFormat = "%-9s    %10.6f    %10.6f%n";
+		out.printf("%-9s    %10s    %10s%n", "Seconds", label1, label2);
+		out.printf(statFormat, "Average", seconds(ProjectStatistics.mean(runs1)), seconds(ProjectStatistics.mean(runs2)));
+		out.printf(statFormat, "Median", seconds(ProjectStatistics.median(runs1)), seconds(ProjectStatistics.median(runs2)));
+		out.printf(statFormat, "P90", seconds(ProjectStatistics.percentile(runs1, 90)), seconds(ProjectStatistics.percentile(runs2, 90)));
+		out.printf(statFormat, "Stddev", seconds(ProjectStatistics.stddev(runs1)), seconds(ProjectStatistics.stddev(runs2)));
+		out.printf(statFormat, "Minimum", seconds(ProjectStatistics.percentile(runs1, 0)), seconds(ProjectStatistics.percentile(runs2, 0)));
+
+		Speedup speedup = ProjectStatistics.speedup(runs1, runs2);
+
+		out.println();
+		out.printf("%10s: x%10.6f (median over median)%n", "Speedup", speedup.estimate());
+		out.printf("%10s: x%10.6f to x%.6f (%.0f%% bootstrap interval)%n", "Interval",
+				speedup.lower(), speedup.upper(), speedup.confidence() * 100);
+		out.printf("```%n");
+
+		// add allocation and garbage collection next to the runtimes
+		String memoryLabels = "%-6s    %12s  %6s  %8s    %12s  %6s  %8s%n";
+		String memoryValues = "%-6s    %12.2f  %6d  %8d    %12.2f  %6d  %8d%n";
 
-		double average1 = (double) total1 / timeRuns;
-		double average2 = (double) total2 / timeRuns;
+		out.printf("%n```%n");
+		out.printf(memoryLabels, "Round", label1 + " MB", "GCs", "GC ms", label2 + " MB", "GCs", "GC ms");
+
+		for (int i = 0; i < timeRuns; i++) {
+			Run run1 = results1[i];
+			Run run2 = results2[i];
+
+			out.printf(memoryValues, i + 1,
+					megabytes(run1.allocated()), run1.collections(), run1.pauses(),
+					megabytes(run2.allocated()), run2.collections(), run2.pauses());
+		}
 
 		out.println();
-		out.printf("%10s:  %10.6f seconds average%n", label1, average1 / Duration.ofSeconds(1).toMillis());
-		out.printf("%10s:  %10.6f seconds average%n%n", label2, average2 / Duration.ofSeconds(1).toMillis());
-		out.printf("%10s:  %10.6f seconds minimum%n", label1, (double) min1 / Duration.ofSeconds(1).toMillis());
-		out.printf("%10s:  %10.6f seconds minimum%n%n", label2, (double) min2 / Duration.ofSeconds(1).toMillis());
+		out.printf("%10s:  %10.2f MB allocated per run (median), %.2f MB by the calling thread%n", label1,
+				megabytes(ProjectStatistics.median(Run.values(results1, Run::allocated))),
+				megabytes(ProjectStatistics.median(Run.values(results1, Run::callerAllocated))));
+		out.printf("%10s:  %10.2f MB allocated per run (median), %.2f MB by the calling thread%n", label2,
+				megabytes(ProjectStatistics.median(Run.values(results2, Run::allocated))),
+				megabytes(ProjectStatistics.median(Run.values(results2, Run::callerAllocated))));
+		out.printf("```%n");
+
+		// add process cpu time next to the wall time to show parallel efficiency
+		double utilization1 = Run.utilization(results1);
+		double utilization2 = Run.utilization(results2);
+		double inflation = Run.inflation(results1, results2);
 
-		double speedup = (double) min1 / min2;
+		String cpuFormat = "%-10s    %10.6f    %10.6f    %8.2f%n";
 
-		// round speedup to 2 decimal points
-		// speedup = BigDecimal.valueOf(speedup).setScale(2, RoundingMode.HALF_UP).doubleValue();
+		out.printf("%n```%n");
+		out.printf("%-10s    %10s    %10s    %8s%n", "Median", "Wall (s)", "CPU (s)", "CPU/Wall");
+		out.printf(cpuFormat, label1, seconds(ProjectStatistics.median(runs1)),
+				seconds(ProjectStatistics.median(Run.values(results1, Run::cpu))), utilization1);
+		out.printf(cpuFormat, label2, seconds(ProjectStatistics.median(runs2)),
+				seconds(ProjectStatistics.median(Run.values(results2, Run::cpu))), utilization2);
 
-		out.printf("%10s: x%10.6f %n", "Speedup", speedup);
+		out.println();
+		out.printf("%10s: x%10.6f the cpu time of %s for a x%.6f speedup%n", "Inflation",
+				inflation, label1, speedup.estimate());
 		out.printf("```%n%n");
+
+		// add where the time went according to the recordings
+		out.print(ProjectRecordings.summary(label1, jfr1));
+		out.print(ProjectRecordings.summary(label2, jfr2));
 		out.flush();
 
 		// output to console and to file
 		String results = writer.toString();
 		System.out.print(results);
 
-		String test = label1.equals("Single") ? "single" : "multi";
-		String format = "bench-%s-%s.txt";
-		String filename = String.format(format, file.toLowerCase(), test);
-		Files.writeString(ProjectPath.ACTUAL.resolve(filename), results);
+		Files.writeString(ProjectPath.ACTUAL.resolve(name + ".txt"), results);
+
+		// output machine-readable results tagged with the current commit
+		Map<String, long[]> timed = new LinkedHashMap<>();
+		timed.put(label1, runs1);
+		timed.put(label2, runs2);
+		Map<String, Object> machine = ProjectBaselines.results(name, timed, speedup);
+
+		Map<String, Object> cpu = new LinkedHashMap<>();
+		cpu.put(label1, Run.values(results1, Run::cpu));
+		cpu.put(label2, Run.values(results2, Run::cpu));
+		cpu.put("utilization", List.of(utilization1, utilization2));
+		cpu.put("inflation", inflation);
+		machine.put("cpu", cpu);
+
+		ProjectBaselines.save(name, machine);
+
+		// optionally gate on allocation and garbage collection budgets
+		String budget = "bench.budget." + file.toLowerCase();
+		int allocated = setting(budget + ".mb", 0);
+		int pauses = setting(budget + ".gc.ms", 0);
+
+		assertBudget(label1, results1, allocated, pauses);
+		assertBudget(label2, results2, allocated, pauses);
+
+		// optionally gate on how much more cpu time the second set uses
+		double inflated = Double.parseDouble(setting(budget + ".inflation", "0"));
+		Assertions.assertTrue(inflated <= 0 || inflation <= inflated,
+				debug("%s used %.2fx the cpu time of %s for a %.2fx speedup (more than the %.2fx budget).",
+						label2, inflation, label1, speedup.estimate(), inflated));
+
+		// fail if much slower than the baseline of an ancestor commit
+		ProjectBaselines.assertNoRegression(name, timed);
 
 		return speedup;
 	}
 
+	/**
+	 * Benchmarks a curve of runtimes as the number of worker threads increases,
+	 * and outputs the speedup, parallel efficiency, and fitted serial fraction
+	 * (using Amdahl's law) as both a markdown table and a CSV file.
+	 *
+	 * @param file the file name to use to save output
+	 * @param args the arguments to use for a given number of worker threads
+	 * @param workers the numbers of worker threads to sweep (starting with 1)
+	 * @param timeRuns the number of timed runs to use per number of workers
+	 * @return the fitted serial fraction
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static double scale(String file, IntFunction<String[]> args, int[] workers, int timeRuns) throws IOException {
+		Configurator.setAllLevels(LogManager.getRootLogger().getName(), Level.OFF);
+
+		// free up memory before benchmarking
+		ProjectTests.freeMemory();
+
+		long[][] runs = new long[workers.length][];
+
+		for (int i = 0; i < workers.length; i++) {
+			runs[i] = Run.values(benchmark(args.apply(workers[i]), WARMUP_ROUNDS, timeRuns), Run::millis);
+		}
+
+		double baseline = ProjectStatistics.median(runs[0]);
+		double[] speedups = new double[workers.length];
+
+		for (int i = 0; i < workers.length; i++) {
+			speedups[i] = baseline / Math.max(ProjectStatistics.median(runs[i]), 1);
+		}
+
+		double serial = ProjectStatistics.amdahl(workers, speedups);
+
+		StringWriter markdown = new StringWriter();
+		StringWriter csv = new StringWriter();
+
+		PrintWriter out = new PrintWriter(markdown);
+		PrintWriter values = new PrintWriter(csv);
+
+		out.printf("%n## Scaling %s - %d to %d Workers%n%n", file, workers[0], workers[workers.length - 1]);
+		out.printf("| Workers | Median (s) | P90 (s) | Speedup | Efficiency | Amdahl |%n");
+		out.printf("|--------:|-----------:|--------:|--------:|-----------:|-------:|%n");
+		values.printf("workers,median_seconds,p90_seconds,speedup,efficiency,amdahl_speedup%n");
+
+		for (int i = 0; i < workers.length; i++) {
+			double median = seconds(ProjectStatistics.median(runs[i]));
+			double p90 = seconds(ProjectStatistics.percentile(runs[i], 90));
+			double efficiency = speedups[i] / workers[i];
+			double predicted = ProjectStatistics.amdahl(serial, workers[i]);
+
+			out.printf("| %7d | %10.6f | %7.4f | %6.2fx | %9.1f%% | %5.2fx |%n",
+					workers[i], median, p90, speedups[i], efficiency * 100, predicted);
+			values.printf("%d,%.6f,%.6f,%.6f,%.6f,%.6f%n",
+					workers[i], median, p90, speedups[i], efficiency, predicted);
+		}
+
+		out.printf("%nFitted serial fraction: %.4f (maximum speedup %.2fx) over %d timed rounds per point.%n%n",
+				serial, 1 / Math.max(serial, Double.MIN_VALUE), timeRuns);
+
+		out.flush();
+		values.flush();
+
+		// output to console and to files
+		String results = markdown.toString();
+		System.out.print(results);
+
+		String name = "scale-" + file.toLowerCase();
+		Files.writeString(ProjectPath.ACTUAL.resolve(name + ".md"), results);
+		Files.writeString(ProjectPath.ACTUAL.resolve(name + ".csv"), csv.toString());
+
+		return serial;
+	}
+
+	/**
+	 * Estimates the latency of individual queries against an index built with
+	 * the provided arguments. The driver does not expose its index, so the
+	 * sampled queries are split into batches that each run after a single build,
+	 * and the fastest run with an empty query file is subtracted from the fastest
+	 * run of each batch. Dividing what is left by the batch size spreads the build
+	 * noise across every query in the batch instead of charging it to one query,
+	 * so every query in a batch is recorded with the mean latency of its batch.
+	 *
+	 * @param build the arguments to build the index
+	 * @param queries the query file to replay
+	 * @param partial whether to use partial search
+	 * @param limit the maximum number of queries to sample (evenly spaced)
+	 * @param batch the number of queries to run after each build
+	 * @param rounds the number of timed rounds per batch
+	 * @return the latencies in microseconds
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static ProjectHistogram latency(String[] build, Path queries, boolean partial, int limit, int batch, int rounds) throws IOException {
+		Configurator.setAllLevels(LogManager.getRootLogger().getName(), Level.OFF);
+
+		List<String> lines = Files.readAllLines(queries).stream().filter(line -> !line.isBlank()).distinct().toList();
+		int step = Math.max(1, lines.size() / Math.max(limit, 1));
+		int size = Math.max(1, batch);
+
+		List<String> sampled = IntStream.range(0, lines.size())
+				.filter(i -> i % step == 0)
+				.limit(limit)
+				.mapToObj(lines::get)
+				.toList();
+
+		Path directory = Files.createTempDirectory("latency-");
+		Path query = directory.resolve("query.txt");
+
+		ProjectHistogram histogram = new ProjectHistogram();
+
+		Function<Path, String[]> args = path -> Stream.concat(Arrays.stream(build),
+				partial ? Stream.of(QUERY.flag, path.toString(), PARTIAL.flag) : Stream.of(QUERY.flag, path.toString()))
+				.toArray(String[]::new);
+
+		try {
+			// build-only baseline with an empty query file (including warmup)
+			Files.writeString(query, "");
+			benchmark(args.apply(query), WARMUP_ROUNDS, 0);
+			long baseline = fastest(args.apply(query), rounds);
+
+			for (int i = 0; i < sampled.size(); i += size) {
+				List<String> group = sampled.subList(i, Math.min(i + size, sampled.size()));
+				Files.write(query, group);
+
+				long elapsed = fastest(args.apply(query), rounds);
+				long each = TimeUnit.NANOSECONDS.toMicros(Math.max(0, elapsed - baseline) / group.size());
+
+				for (int j = 0; j < group.size(); j++) {
+					histogram.record(each);
+				}
+			}
+		}
+		finally {
+			Files.deleteIfExists(query);
+			Files.deleteIfExists(directory);
+		}
+
+		return histogram;
+	}
+
+	/**
+	 * Returns the fastest runtime of the {@link Driver#main(String[])} method in
+	 * nanoseconds, with all console output suppressed.
+	 *
+	 * @param args the arguments to run
+	 * @param rounds the number of timed runs to use
+	 * @return the fastest runtime in nanoseconds
+	 */
+	private static long fastest(String[] args, int rounds) {
+		PrintStream systemOut = System.out;
+		PrintStream systemErr = System.err;
+
+		PrintStream nullStream = new PrintStream(OutputStream.nullOutputStream());
+		System.setOut(nullStream);
+		System.setErr(nullStream);
+
+		long fastest = Long.MAX_VALUE;
+
+		try {
+			for (int i = 0; i < rounds; i++) {
+				long start = System.nanoTime();
+				Driver.main(args);
+				fastest = Math.min(fastest, System.nanoTime() - start);
+			}
+		}
+		catch (Exception e) {
+			Assertions.fail(String.format("%nArguments:%n    [%s]%nException:%n    %s%n", String.join(" ", args), e));
+		}
+		finally {
+			System.setOut(systemOut);
+			System.setErr(systemErr);
+		}
+
+		return fastest;
+	}
+
+	/**
+	 * Returns the text to build from in the opt-in benchmark suites. The
+	 * {@code bench.corpus} setting is only parsed when a benchmark needs it, so
+	 * an invalid value fails that benchmark instead of every class that uses this
+	 * one.
+	 *
+	 * @return the text to build from
+	 * @throws IllegalArgumentException if the setting is not a valid path name
+	 * @see #BENCH_CORPUS
+	 */
+	public static ProjectPath benchCorpus() {
+		try {
+			return ProjectPath.valueOf(BENCH_CORPUS.strip().toUpperCase(Locale.ROOT));
+		}
+		catch (IllegalArgumentException e) {
+			String valid = Arrays.stream(ProjectPath.values()).map(ProjectPath::name).collect(Collectors.joining(", "));
+			throw new IllegalArgumentException(String.format(
+					"Invalid bench.corpus setting \"%s\"; expected one of: %s", BENCH_CORPUS, valid), e);
+		}
+	}
+
+	/**
+	 * Returns the timeout for a single run on the text of the opt-in benchmark
+	 * suites. This is the base timeout for the input text, plus
+	 * {@link #CORPUS_MS_PER_MB} milliseconds per megabyte of a generated corpus.
+	 *
+	 * @param base the timeout for the input text
+	 * @return the timeout for the selected text
+	 * @see #BENCH_CORPUS
+	 */
+	public static Duration corpusTimeout(Duration base) {
+		ProjectPath corpus = benchCorpus();
+
+		if (!corpus.name().startsWith("GENERATED_")) {
+			return base;
+		}
+
+		long megabytes = ProjectCorpus.preset(corpus).bytes() / (1024 * 1024);
+		return base.plusMillis(megabytes * CORPUS_MS_PER_MB);
+	}
+
+	/**
+	 * Returns the text to build from in the opt-in benchmark suites, generating
+	 * it first if it is a generated corpus that does not exist yet.
+	 *
+	 * @return the text path
+	 * @throws IOException if unable to generate the corpus
+	 * @see #BENCH_CORPUS
+	 */
+	public static String corpus() throws IOException {
+		ProjectPath corpus = benchCorpus();
+
+		if (corpus.name().startsWith("GENERATED_")) {
+			ProjectCorpus.ensure(corpus);
+		}
+
+		return corpus.text;
+	}
+
+	/**
+	 * Returns the query file that goes with the text in the opt-in benchmark
+	 * suites: the complex queries for the input text, or the generated queries
+	 * for a generated corpus.
+	 *
+	 * @return the query path
+	 * @throws IOException if unable to generate the corpus
+	 * @see #BENCH_CORPUS
+	 */
+	public static String queries() throws IOException {
+		ProjectPath corpus = benchCorpus();
+
+		if (corpus.name().startsWith("GENERATED_")) {
+			ProjectCorpus.ensure(corpus);
+			return ProjectCorpus.queries(corpus).toString();
+		}
+
+		return ProjectPath.QUERY_COMPLEX.text;
+	}
+
+	/**
+	 * Checks the output of the driver against the reference implementation when
+	 * the opt-in benchmark suites use a generated corpus, which has no expected
+	 * output files. Runs the driver once more with the benchmark arguments plus
+	 * the counts, index, and (if searching) results output. Does nothing for the
+	 * input text, since the other test suites already check its output.
+	 *
+	 * @param file the file name prefix to use for the output
+	 * @param args the benchmark arguments
+	 * @see ProjectOracle#generate(String[])
+	 * @see #corpusTimeout(Duration)
+	 */
+	public static void assertOracle(String file, String[] args) {
+		if (!benchCorpus().name().startsWith("GENERATED_")) {
+			return;
+		}
+
+		Path actual = ProjectPath.ACTUAL.resolve("oracle");
+		Path expected = actual.resolve("expected");
+		boolean search = Arrays.asList(args).contains(QUERY.flag);
+
+		Map<Path, Path> files = new LinkedHashMap<>();
+		files.put(actual.resolve(file + "-counts.json"), expected.resolve(file + "-counts.json"));
+		files.put(actual.resolve(file + "-index.json"), expected.resolve(file + "-index.json"));
+
+		if (search) {
+			files.put(actual.resolve(file + "-results.json"), expected.resolve(file + "-results.json"));
+		}
+
+		Function<Function<Path, Path>, String[]> outputs = location -> {
+			List<Path> paths = List.copyOf(files.keySet());
+			Stream<String> flags = Stream.of(
+					COUNTS.flag, location.apply(paths.get(0)).toString(),
+					INDEX.flag, location.apply(paths.get(1)).toString());
+
+			if (search) {
+				flags = Stream.concat(flags, Stream.of(RESULTS.flag, location.apply(paths.get(2)).toString()));
+			}
+
+			return Stream.concat(Arrays.stream(args), flags).toArray(String[]::new);
+		};
+
+		String[] driver = outputs.apply(Function.identity());
+		Duration timeout = corpusTimeout(LONG_TIMEOUT);
+
+		Assertions.assertTimeoutPreemptively(timeout, () -> {
+			Files.createDirectories(expected);
+			ProjectOracle.generate(outputs.apply(files::get));
+		}, () -> "Unable to generate the reference output for " + file);
+
+		checkOutput(driver, files, timeout);
+	}
+
+	/**
+	 * Returns the numbers of worker threads to sweep: 1 and then every power of
+	 * two up to the maximum, including the number of available processors and
+	 * the maximum itself.
+	 *
+	 * @param maximum the maximum number of worker threads
+	 * @return the numbers of worker threads in increasing order
+	 */
+	public static int[] sweep(int maximum) {
+		int processors = Runtime.getRuntime().availableProcessors();
+
+		return IntStream.concat(
+				IntStream.iterate(1, i -> i <= maximum, i -> i * 2),
+				IntStream.of(processors, maximum))
+				.filter(i -> i >= 1 && i <= maximum)
+				.distinct()
+				.sorted()
+				.toArray();
+	}
+
+	/**
+	 * Asserts the median allocation and garbage collection pause time per run
+	 * are within budget. For example, the build benchmarks can be limited to
+	 * 800 MB allocated per run with {@code -Dbench.budget.build.mb=800}.
+	 *
+	 * @param label the label of the run set
+	 * @param runs the measured runs
+	 * @param megabytes the maximum megabytes allocated per run or 0 to skip
+	 * @param millis the maximum garbage collection time per run or 0 to skip
+	 */
+	public static void assertBudget(String label, Run[] runs, double megabytes, double millis) {
+		double allocated = megabytes(ProjectStatistics.median(Run.values(runs, Run::allocated)));
+		double pauses = ProjectStatistics.median(Run.values(runs, Run::pauses));
+
+		Assertions.assertAll(
+				() -> Assertions.assertTrue(megabytes <= 0 || allocated <= megabytes,
+						debug("%s allocated %.2f MB per run (more than the %.2f MB budget).", label, allocated, megabytes)),
+				() -> Assertions.assertTrue(millis <= 0 || pauses <= millis,
+						debug("%s spent %.0f ms in garbage collection per run (more than the %.0f ms budget).", label, pauses, millis)));
+	}
+
+	/**
+	 * Asserts the speedup reaches the target, judged on its bootstrap confidence
+	 * interval: the lower bound of the interval must reach the target. The
+	 * estimate (median over median) is included in the output as well.
+	 *
+	 * @param speedup the measured speedup
+	 * @param target the target speedup
+	 * @param workers the number of worker threads
+	 * @param baseline the description of the baseline (e.g. "1 worker")
+	 *
+	 * @see Speedup#reaches(double)
+	 */
+	public static void assertSpeedup(Speedup speedup, double target, int workers, String baseline) {
+		Supplier<String> debug = () -> String.format(format, workers, speedup.estimate(),
+				speedup.confidence() * 100, speedup.lower(), speedup.upper(), target, baseline);
+		Assertions.assertTrue(speedup.reaches(target), debug);
+	}
+
+	/**
+	 * Converts bytes into megabytes.
+	 *
+	 * @param bytes the bytes
+	 * @return the megabytes
+	 */
+	public static double megabytes(double bytes) {
+		return bytes / 1048576;
+	}
+
+	/**
+	 * Converts milliseconds into seconds.
+	 *
+	 * @param millis the milliseconds
+	 * @return the seconds
+	 */
+	public static double seconds(double millis) {
+		return millis / Duration.ofSeconds(1).toMillis();
+	}
+
 	/**
 	 * Benchmarks the {@link Driver#main(String[])} method with the provided
-	 * arguments. Tracks the timing of every run to allow of visual inspection.
+	 * arguments, using the default number of warmup runs.
 	 *
 	 * @param args the arguments to run
 	 * @param timeRuns the number of timed runs to use
-	 * @return an array of all the runtimes, including warmup runs and timed runs
+	 * @return the measurements of the timed runs
+	 *
+	 * @see #benchmark(String[], int, int)
 	 */
-	public static long[] benchmark(String[] args, int timeRuns) {
-		long[] runs = new long[timeRuns];
+	public static Run[] benchmark(String[] args, int timeRuns) {
+		return benchmark(args, WARMUP_ROUNDS, timeRuns);
+	}
 
-		Instant start;
-		Duration elapsed;
+	/**
+	 * Benchmarks the {@link Driver#main(String[])} method with the provided
+	 * arguments. Runs several untimed warmup runs first, and then tracks the
+	 * timing of every timed run to allow of visual inspection.
+	 *
+	 * @param args the arguments to run
+	 * @param warmRuns the number of untimed warmup runs to use
+	 * @param timeRuns the number of timed runs to use
+	 * @return the measurements of the timed runs (excluding warmup runs)
+	 */
+	public static Run[] benchmark(String[] args, int warmRuns, int timeRuns) {
+		Run[] runs = new Run[timeRuns];
 
 		// suppress all console output for the warmup and timed runs
 		PrintStream systemOut = System.out;
@@ -234,14 +738,18 @@ public class ProjectBenchmarks extends ProjectTests {
 		System.setOut(nullStream);
 		System.setErr(nullStream);
 
-		systemOut.print("Benchmarking");
+		systemOut.print("Warming up");
 
 		try {
-			for (int i = 0; i < timeRuns; i++) {
-				start = Instant.now();
+			for (int i = 0; i < warmRuns; i++) {
 				Driver.main(args);
-				elapsed = Duration.between(start, Instant.now());
-				runs[i] = elapsed.toMillis();
+				systemOut.print(".");
+			}
+
+			systemOut.print("benchmarking");
+
+			for (int i = 0; i < timeRuns; i++) {
+				runs[i] = measure(args);
 				systemOut.print(".");
 			}
 		}
@@ -264,6 +772,117 @@ public class ProjectBenchmarks extends ProjectTests {
 		return runs;
 	}
 
+	/**
+	 * Runs the {@link Driver#main(String[])} method once, measuring its runtime,
+	 * process cpu time, allocation, and garbage collection using the platform
+	 * MXBeans. The cpu time includes every thread of the process (including
+	 * garbage collection and compiler threads), which is what a machine is
+	 * actually billed for.
+	 *
+	 * @param args the arguments to run
+	 * @return the measurements of the run
+	 * @throws Exception if the driver throws an exception
+	 */
+	public static Run measure(String[] args) throws Exception {
+		var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		var system = (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+		long allocated = threads.getTotalThreadAllocatedBytes();
+		long caller = threads.getCurrentThreadAllocatedBytes();
+		long collections = collectionCount();
+		long pauses = collectionTime();
+		long cpu = system.getProcessCpuTime();
+
+		Instant start = Instant.now();
+		Driver.main(args);
+		Duration elapsed = Duration.between(start, Instant.now());
+
+		return new Run(
+				elapsed.toMillis(),
+				threads.getTotalThreadAllocatedBytes() - allocated,
+				threads.getCurrentThreadAllocatedBytes() - caller,
+				collectionCount() - collections,
+				collectionTime() - pauses,
+				cpu < 0 ? 0 : Duration.ofNanos(system.getProcessCpuTime() - cpu).toMillis());
+	}
+
+	/**
+	 * Returns the total number of garbage collections across all collectors.
+	 *
+	 * @return the total number of collections so far
+	 */
+	public static long collectionCount() {
+		return ManagementFactory.getGarbageCollectorMXBeans()
+				.stream()
+				.mapToLong(GarbageCollectorMXBean::getCollectionCount)
+				.filter(count -> count > 0)
+				.sum();
+	}
+
+	/**
+	 * Returns the approximate accumulated garbage collection time in
+	 * milliseconds across all collectors.
+	 *
+	 * @return the total collection time so far
+	 */
+	public static long collectionTime() {
+		return ManagementFactory.getGarbageCollectorMXBeans()
+				.stream()
+				.mapToLong(GarbageCollectorMXBean::getCollectionTime)
+				.filter(time -> time > 0)
+				.sum();
+	}
+
+	/**
+	 * The measurements of a single benchmark run.
+	 *
+	 * @param millis the elapsed wall time in milliseconds
+	 * @param allocated the bytes allocated by all threads during the run
+	 * @param callerAllocated the bytes allocated by the thread calling the driver
+	 * @param collections the number of garbage collections during the run
+	 * @param pauses the garbage collection time in milliseconds during the run
+	 * @param cpu the process cpu time in milliseconds during the run (0 if unsupported)
+	 */
+	public static record Run(long millis, long allocated, long callerAllocated, long collections, long pauses, long cpu) {
+		/**
+		 * Returns one measurement from each of the runs.
+		 *
+		 * @param runs the runs
+		 * @param value the measurement to return
+		 * @return the measurement of each run
+		 */
+		public static long[] values(Run[] runs, ToLongFunction<Run> value) {
+			return Arrays.stream(runs).mapToLong(value).toArray();
+		}
+
+		/**
+		 * Returns the median cpu-seconds used per wall-second of the runs. For
+		 * example, 4 workers kept fully busy would use about 4 cpu-seconds per
+		 * wall-second.
+		 *
+		 * @param runs the runs
+		 * @return the median cpu time over the median wall time
+		 */
+		public static double utilization(Run[] runs) {
+			return ProjectStatistics.median(values(runs, Run::cpu))
+					/ Math.max(ProjectStatistics.median(values(runs, Run::millis)), 1);
+		}
+
+		/**
+		 * Returns how much more cpu time the candidate runs used than the
+		 * baseline runs for the same work (the work inflation). A value near 1
+		 * means parallelism did not add any extra work.
+		 *
+		 * @param baseline the baseline runs (e.g. single-threaded)
+		 * @param candidate the candidate runs (e.g. multithreaded)
+		 * @return the median cpu time of the candidate over the baseline
+		 */
+		public static double inflation(Run[] baseline, Run[] candidate) {
+			return ProjectStatistics.median(values(candidate, Run::cpu))
+					/ Math.max(ProjectStatistics.median(values(baseline, Run::cpu)), 1);
+		}
+	}
+
 	/** The number of threads to use in testing. */
 	public static enum Threads {
 		/** One thread */
@@ -0,0 +1,636 @@
+package edu.usfca.cs272.tests.utils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates large synthetic text corpora for indexing benchmarks. The words
+ * follow a Zipfian distribution over a generated vocabulary (with the most
+ * common English words at the top ranks), so a few words are very common and
+ * most are rare like in real text. More common words tend to be shorter, which
+ * gives realistic word lengths. Files are spread over a nested directory tree
+ * with a log-normal file size distribution, and use both the {@code .txt} and
+ * {@code .text} extensions.
+ *
+ * The same settings always generate the same corpus, no matter how many
+ * threads generate it, since every file is generated from its own seed. The
+ * corpora are generated under {@link ProjectPath#GENERATED} the first time they
+ * are needed, and are not checked into the repository.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+public class ProjectCorpus {
+	/** The file that describes a generated corpus (written last). */
+	public static final String MANIFEST = "corpus.properties";
+
+	/** The seed used for all of the preset corpora. */
+	public static final long SEED = ProjectTests.setting("corpus.seed", 272);
+
+	/** The most common English words, used as the top ranks of the vocabulary. */
+	private static final String[] COMMON = {
+			"the", "of", "and", "to", "a", "in", "is", "that", "it", "was", "for",
+			"on", "as", "with", "he", "be", "at", "by", "his", "this", "had",
+			"not", "are", "but", "from", "or", "have", "an", "they", "which"
+	};
+
+	/** The relative frequency of every letter in English text (a to z). */
+	private static final double[] LETTERS = {
+			8.2, 1.5, 2.8, 4.3, 12.7, 2.2, 2.0, 6.1, 7.0, 0.2, 0.8, 4.0, 2.4,
+			6.7, 7.5, 1.9, 0.1, 6.0, 6.3, 9.1, 2.8, 1.0, 2.4, 0.2, 2.0, 0.1
+	};
+
+	/** The relative frequency of vocabulary word lengths (1 to 18 letters). */
+	private static final double[] LENGTHS = {
+			0.1, 0.6, 2.6, 5.2, 8.5, 12.2, 14.0, 14.0, 12.6, 10.1, 7.5, 5.2, 3.2,
+			2.0, 1.0, 0.6, 0.4, 0.2
+	};
+
+	/**
+	 * The settings of a generated corpus.
+	 *
+	 * @param seed the random seed
+	 * @param bytes the approximate total size in bytes
+	 * @param vocabulary the number of distinct words
+	 * @param exponent the Zipf exponent (about 1 for English)
+	 * @param median the median file size in bytes
+	 * @param spread the standard deviation of the log file size
+	 * @param largest the maximum file size in bytes
+	 * @param depth the maximum directory nesting depth
+	 * @param fanout the number of subdirectories per directory
+	 * @param text the fraction of files that use the {@code .text} extension
+	 */
+	public static record Spec(long seed, long bytes, int vocabulary, double exponent,
+			int median, double spread, int largest, int depth, int fanout, double text) {
+
+		/**
+		 * Returns the settings for the given total size, using the default values
+		 * (or the {@code corpus.*} settings) for everything else.
+		 *
+		 * @param seed the random seed
+		 * @param bytes the approximate total size in bytes
+		 * @return the settings
+		 */
+		public static Spec of(long seed, long bytes) {
+			return new Spec(seed, bytes,
+					ProjectTests.setting("corpus.vocabulary", 200_000),
+					Double.parseDouble(ProjectTests.setting("corpus.exponent", "1.07")),
+					ProjectTests.setting("corpus.median", 24 * 1024),
+					Double.parseDouble(ProjectTests.setting("corpus.spread", "1.2")),
+					ProjectTests.setting("corpus.largest", 16 * 1024 * 1024),
+					ProjectTests.setting("corpus.depth", 4),
+					ProjectTests.setting("corpus.fanout", 8),
+					Double.parseDouble(ProjectTests.setting("corpus.text", "0.25")));
+		}
+
+		/**
+		 * Returns the settings as properties, to compare against a previously
+		 * generated corpus.
+		 *
+		 * @return the settings as properties
+		 */
+		public Properties properties() {
+			Properties properties = new Properties();
+			properties.setProperty("seed", Long.toString(seed));
+			properties.setProperty("bytes", Long.toString(bytes));
+			properties.setProperty("vocabulary", Integer.toString(vocabulary));
+			properties.setProperty("exponent", Double.toString(exponent));
+			properties.setProperty("median", Integer.toString(median));
+			properties.setProperty("spread", Double.toString(spread));
+			properties.setProperty("largest", Integer.toString(largest));
+			properties.setProperty("depth", Integer.toString(depth));
+			properties.setProperty("fanout", Integer.toString(fanout));
+			properties.setProperty("text", Double.toString(text));
+			return properties;
+		}
+	}
+
+	/**
+	 * What was generated.
+	 *
+	 * @param files the number of files
+	 * @param bytes the total size in bytes
+	 * @param words the total number of words
+	 */
+	public static record Summary(int files, long bytes, long words) {
+		@Override
+		public String toString() {
+			return String.format("%,d files with %,d words in %.1f MB", files, words, bytes / 1024.0 / 1024.0);
+		}
+	}
+
+	/**
+	 * Returns the settings of a preset corpus. The default sizes are 64 MB for
+	 * {@link ProjectPath#GENERATED_SMALL}, 1 GB for
+	 * {@link ProjectPath#GENERATED_MEDIUM}, and 20 GB for
+	 * {@link ProjectPath#GENERATED_LARGE}, and can be changed with the
+	 * {@code corpus.small.mb}, {@code corpus.medium.mb}, and
+	 * {@code corpus.large.mb} settings.
+	 *
+	 * @param path the preset corpus
+	 * @return the settings
+	 * @throws IllegalArgumentException if the path is not a preset corpus
+	 */
+	public static Spec preset(ProjectPath path) {
+		int megabytes = switch (path) {
+			case GENERATED_SMALL -> ProjectTests.setting("corpus.small.mb", 64);
+			case GENERATED_MEDIUM -> ProjectTests.setting("corpus.medium.mb", 1024);
+			case GENERATED_LARGE -> ProjectTests.setting("corpus.large.mb", 20 * 1024);
+			default -> throw new IllegalArgumentException("Not a generated corpus: " + path.text);
+		};
+
+		return Spec.of(SEED, megabytes * 1024L * 1024L);
+	}
+
+	/**
+	 * Makes sure the preset corpus has been generated with the current
+	 * settings, generating it (and its query file) if needed.
+	 *
+	 * @param path the preset corpus
+	 * @return the corpus directory
+	 * @throws IOException if unable to generate the corpus
+	 */
+	public static synchronized Path ensure(ProjectPath path) throws IOException {
+		Spec spec = preset(path);
+		Path manifest = path.path.resolve(MANIFEST);
+
+		if (Files.isReadable(manifest)) {
+			Properties existing = new Properties();
+
+			try (Reader reader = Files.newBufferedReader(manifest, UTF_8)) {
+				existing.load(reader);
+			}
+
+			boolean same = spec.properties().entrySet().stream()
+					.allMatch(entry -> entry.getValue().equals(existing.get(entry.getKey())));
+
+			if (same && Files.isReadable(queries(path))) {
+				return path.path;
+			}
+		}
+
+		delete(path.path);
+		generate(path.path, spec);
+		return path.path;
+	}
+
+	/**
+	 * Returns the query file that goes with a generated corpus. It is stored
+	 * next to the corpus directory so it is never indexed with the corpus.
+	 *
+	 * @param path the corpus directory
+	 * @return the query file
+	 */
+	public static Path queries(ProjectPath path) {
+		return path.path.resolveSibling(path.path.getFileName() + "-queries.txt");
+	}
+
+	/**
+	 * Generates a corpus in parallel, along with a query file of common and
+	 * rare words and word prefixes next to the corpus directory.
+	 *
+	 * @param root the corpus directory
+	 * @param spec the settings
+	 * @return what was generated
+	 * @throws IOException if unable to write the corpus
+	 */
+	public static Summary generate(Path root, Spec spec) throws IOException {
+		String[] vocabulary = vocabulary(new SplittableRandom(spec.seed()), spec.vocabulary());
+		Alias zipf = new Alias(zipf(vocabulary.length, spec.exponent()));
+
+		// file sizes only depend on the seed, so plan them first
+		List<Long> sizes = new ArrayList<>();
+		long planned = 0;
+
+		while (planned < spec.bytes()) {
+			long size = size(random(spec, sizes.size()), spec);
+			sizes.add(size);
+			planned += size;
+		}
+
+		Files.createDirectories(root);
+		LongAdder words = new LongAdder();
+
+		try {
+			IntStream.range(0, sizes.size()).parallel().forEach(i -> {
+				try {
+					words.add(write(root, spec, i, vocabulary, zipf));
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+		Path parent = root.toAbsolutePath().getParent();
+		Path queries = parent.resolve(root.getFileName() + "-queries.txt");
+		Files.write(queries, queries(new SplittableRandom(~spec.seed()), vocabulary, zipf, 200), UTF_8);
+
+		long bytes;
+
+		try (Stream<Path> files = Files.walk(root)) {
+			bytes = files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+		}
+
+		Summary summary = new Summary(sizes.size(), bytes, words.sum());
+
+		// written last so an interrupted run is generated again
+		Properties manifest = spec.properties();
+		manifest.setProperty("files", Integer.toString(summary.files()));
+		manifest.setProperty("words", Long.toString(summary.words()));
+		manifest.setProperty("total", Long.toString(summary.bytes()));
+
+		try (Writer writer = Files.newBufferedWriter(root.resolve(MANIFEST), UTF_8)) {
+			manifest.store(writer, "Generated by " + ProjectCorpus.class.getSimpleName());
+		}
+
+		return summary;
+	}
+
+	/**
+	 * Returns the random number generator of a single file. Every file has its
+	 * own seed so the files can be generated in any order.
+	 *
+	 * @param spec the settings
+	 * @param index the file number
+	 * @return the random number generator
+	 */
+	private static SplittableRandom random(Spec spec, int index) {
+		long mixed = spec.seed() * 0x9E3779B97F4A7C15L + index;
+		mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L;
+		mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+		return new SplittableRandom(mixed ^ (mixed >>> 31));
+	}
+
+	/**
+	 * Returns the next log-normal file size.
+	 *
+	 * @param random the random number generator of the file
+	 * @param spec the settings
+	 * @return the file size in bytes
+	 */
+	private static long size(SplittableRandom random, Spec spec) {
+		double size = spec.median() * Math.exp(spec.spread() * random.nextGaussian());
+		return (long) Math.max(64, Math.min(spec.largest(), size));
+	}
+
+	/**
+	 * Writes a single file of sentences and paragraphs.
+	 *
+	 * @param root the corpus directory
+	 * @param spec the settings
+	 * @param index the file number
+	 * @param vocabulary the words by rank
+	 * @param zipf the word rank distribution
+	 * @return the number of words written
+	 * @throws IOException if unable to write the file
+	 */
+	private static long write(Path root, Spec spec, int index, String[] vocabulary, Alias zipf) throws IOException {
+		SplittableRandom random = random(spec, index);
+		long size = size(random, spec);
+
+		// nest the file within a random number of subdirectories
+		Path directory = root;
+		int depth = random.nextInt(spec.depth() + 1);
+
+		for (int level = 0; level < depth; level++) {
+			directory = directory.resolve(String.format("part-%02d", random.nextInt(spec.fanout())));
+		}
+
+		String extension = random.nextDouble() < spec.text() ? ".text" : ".txt";
+		Path file = Files.createDirectories(directory).resolve(String.format("doc-%07d%s", index, extension));
+
+		long written = 0;
+		long words = 0;
+		int column = 0;
+		int sentence = 0;
+
+		try (BufferedWriter writer = Files.newBufferedWriter(file, UTF_8)) {
+			while (written < size) {
+				int length = 5 + random.nextInt(20);
+
+				for (int i = 0; i < length; i++) {
+					String word = word(random, vocabulary, zipf);
+
+					if (i == 0) {
+						word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+					}
+
+					String separator = i == length - 1 ? "." : random.nextInt(10) == 0 ? "," : "";
+
+					if (column > 0 && column + word.length() + separator.length() >= 72) {
+						writer.write('\n');
+						written++;
+						column = 0;
+					}
+					else if (column > 0) {
+						writer.write(' ');
+						written++;
+						column++;
+					}
+
+					writer.write(word);
+					writer.write(separator);
+					written += word.length() + separator.length();
+					column += word.length() + separator.length();
+					words++;
+				}
+
+				// start a new paragraph every few sentences
+				if (++sentence % (4 + index % 5) == 0) {
+					writer.write("\n\n");
+					written += 2;
+					column = 0;
+				}
+			}
+
+			writer.write('\n');
+		}
+
+		return words;
+	}
+
+	/**
+	 * Returns a random word, sometimes with the kinds of digits, symbols, and
+	 * accents that the text cleaning has to handle.
+	 *
+	 * @param random the random number generator
+	 * @param vocabulary the words by rank
+	 * @param zipf the word rank distribution
+	 * @return the word
+	 */
+	private static String word(SplittableRandom random, String[] vocabulary, Alias zipf) {
+		String word = vocabulary[zipf.sample(random)];
+		int special = random.nextInt(1000);
+
+		if (special < 8) {
+			return word + "-" + vocabulary[zipf.sample(random)];
+		}
+		else if (special < 14) {
+			return Integer.toString(1 + random.nextInt(2025));
+		}
+		else if (special < 16) {
+			return word.replace('e', 'é');
+		}
+		else if (special < 20) {
+			return "\"" + word + "\"";
+		}
+
+		return word;
+	}
+
+	/**
+	 * Generates the vocabulary, ordered so that more common words tend to be
+	 * shorter.
+	 *
+	 * @param random the random number generator
+	 * @param size the number of distinct words
+	 * @return the words by rank
+	 */
+	private static String[] vocabulary(SplittableRandom random, int size) {
+		Alias letters = new Alias(LETTERS);
+		Alias lengths = new Alias(LENGTHS);
+
+		Set<String> words = new LinkedHashSet<>(Arrays.asList(COMMON));
+		List<String> generated = new ArrayList<>();
+
+		while (words.size() < Math.max(size, COMMON.length)) {
+			int length = 1 + lengths.sample(random);
+			StringBuilder word = new StringBuilder(length);
+			int consonants = 0;
+
+			while (word.length() < length) {
+				char letter = (char) ('a' + letters.sample(random));
+				boolean vowel = "aeiouy".indexOf(letter) >= 0;
+
+				// avoid long runs of consonants so words are pronounceable
+				if (!vowel && consonants == 2) {
+					continue;
+				}
+
+				consonants = vowel ? 0 : consonants + 1;
+				word.append(letter);
+			}
+
+			if (words.add(word.toString())) {
+				generated.add(word.toString());
+			}
+		}
+
+		// shorter words get more common ranks, with some noise
+		double[] keys = new double[generated.size()];
+		Integer[] order = new Integer[generated.size()];
+
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+			keys[i] = generated.get(i).length() + random.nextGaussian() * 2.5;
+		}
+
+		Arrays.sort(order, Comparator.comparingDouble(i -> keys[i]));
+
+		String[] vocabulary = new String[COMMON.length + order.length];
+		System.arraycopy(COMMON, 0, vocabulary, 0, COMMON.length);
+
+		for (int i = 0; i < order.length; i++) {
+			vocabulary[COMMON.length + i] = generated.get(order[i]);
+		}
+
+		return vocabulary;
+	}
+
+	/**
+	 * Returns the Zipf weights of each rank.
+	 *
+	 * @param size the number of ranks
+	 * @param exponent the Zipf exponent
+	 * @return the weight of each rank
+	 */
+	private static double[] zipf(int size, double exponent) {
+		double[] weights = new double[size];
+
+		for (int rank = 0; rank < size; rank++) {
+			weights[rank] = 1.0 / Math.pow(rank + 1, exponent);
+		}
+
+		return weights;
+	}
+
+	/**
+	 * Returns query lines with a mix of common words, rare words, and word
+	 * prefixes (for partial search).
+	 *
+	 * @param random the random number generator
+	 * @param vocabulary the words by rank
+	 * @param zipf the word rank distribution
+	 * @param count the number of lines
+	 * @return the query lines
+	 */
+	private static List<String> queries(SplittableRandom random, String[] vocabulary, Alias zipf, int count) {
+		List<String> lines = new ArrayList<>();
+
+		for (int i = 0; i < count; i++) {
+			int length = 1 + random.nextInt(3);
+			List<String> words = new ArrayList<>();
+
+			for (int j = 0; j < length; j++) {
+				String word = i % 4 == 3 ?
+						vocabulary[random.nextInt(vocabulary.length)] : vocabulary[zipf.sample(random)];
+
+				if (i % 2 == 1 && word.length() > 3) {
+					word = word.substring(0, 3 + random.nextInt(word.length() - 2));
+				}
+
+				words.add(i % 5 == 0 ? word.toUpperCase(Locale.ROOT) : word);
+			}
+
+			lines.add(String.join(" ", words));
+		}
+
+		return lines;
+	}
+
+	/**
+	 * Deletes a directory tree, if it exists.
+	 *
+	 * @param root the directory to delete
+	 * @throws IOException if unable to delete the directory
+	 */
+	private static void delete(Path root) throws IOException {
+		if (!Files.exists(root)) {
+			return;
+		}
+
+		Deque<Path> paths = new ArrayDeque<>();
+
+		try (Stream<Path> stream = Files.walk(root)) {
+			stream.forEach(paths::push);
+		}
+
+		while (!paths.isEmpty()) {
+			Files.delete(paths.pop());
+		}
+	}
+
+	/**
+	 * Samples from a discrete distribution in constant time using the alias
+	 * method (Vose), so that billions of words can be generated quickly.
+	 */
+	private static class Alias {
+		/** The probability of keeping each column. */
+		private final double[] probability;
+
+		/** The alternative of each column. */
+		private final int[] alias;
+
+		/**
+		 * Initializes the distribution.
+		 *
+		 * @param weights the relative weight of each outcome
+		 */
+		public Alias(double[] weights) {
+			int size = weights.length;
+			double total = Arrays.stream(weights).sum();
+
+			probability = new double[size];
+			alias = new int[size];
+
+			double[] scaled = new double[size];
+			int[] small = new int[size];
+			int[] large = new int[size];
+			int smalls = 0;
+			int larges = 0;
+
+			for (int i = 0; i < size; i++) {
+				scaled[i] = weights[i] * size / total;
+
+				if (scaled[i] < 1) {
+					small[smalls++] = i;
+				}
+				else {
+					large[larges++] = i;
+				}
+			}
+
+			while (smalls > 0 && larges > 0) {
+				int less = small[--smalls];
+				int more = large[--larges];
+
+				probability[less] = scaled[less];
+				alias[less] = more;
+				scaled[more] = scaled[more] + scaled[less] - 1;
+
+				if (scaled[more] < 1) {
+					small[smalls++] = more;
+				}
+				else {
+					large[larges++] = more;
+				}
+			}
+
+			while (larges > 0) {
+				probability[large[--larges]] = 1;
+			}
+
+			while (smalls > 0) {
+				probability[small[--smalls]] = 1;
+			}
+		}
+
+		/**
+		 * Returns a random outcome.
+		 *
+		 * @param random the random number generator
+		 * @return the outcome
+		 */
+		public int sample(SplittableRandom random) {
+			int column = random.nextInt(probability.length);
+			return random.nextDouble() < probability[column] ? column : alias[column];
+		}
+	}
+
+	/**
+	 * Generates the preset corpora given as arguments (for example
+	 * {@code GENERATED_SMALL}), or the small one if there are no arguments.
+	 *
+	 * @param args the preset corpora to generate
+	 * @throws IOException if unable to generate a corpus
+	 */
+	public static void main(String[] args) throws IOException {
+		List<String> names = args.length > 0 ? List.of(args) : List.of(ProjectPath.GENERATED_SMALL.name());
+
+		for (String name : names) {
+			ProjectPath path = ProjectPath.valueOf(name.toUpperCase(Locale.ROOT));
+			long start = System.nanoTime();
+			ensure(path);
+			System.out.printf("Generated %s in %.1f seconds%n", path.text, (System.nanoTime() - start) / 1e9);
+		}
+	}
+
+	/** Prevent instantiating this class of static methods. */
+	private ProjectCorpus() {
+	}
+}
@@ -0,0 +1,273 @@
+package edu.usfca.cs272.tests.utils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Compares actual output against a precomputed manifest of SHA-256 digests of
+ * the expected output files, so that only a single streaming pass over the
+ * actual output is needed when it matches. Both sides are whitespace-normalized
+ * first: trailing whitespace on each line and blank lines at the end of the
+ * file are ignored, like in {@link ProjectTests#compareFiles(Path, Path)}.
+ *
+ * The normalization works on bytes and only removes ASCII whitespace, so a
+ * matching digest always means {@link ProjectTests#compareFiles(Path, Path)}
+ * would also find the files equal. Anything else (including a missing or
+ * outdated manifest entry) falls back to the line-by-line comparison. Only the
+ * actual file is read when comparing; the manifest itself is kept up to date by
+ * {@code ExpectedDigestTests}, which fails if it differs from a regenerated
+ * one.
+ *
+ * The manifest only exists for the Unix-like expected files. After changing
+ * any expected files, regenerate it by running the {@link #main(String[])}
+ * method from the project-tests directory.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+public class ProjectDigests {
+	/** The manifest file name within the expected directory. */
+	public static final String MANIFEST = "manifest.sha256";
+
+	/** Whether to use the digest manifest when checking output. */
+	public static final boolean ENABLED = Boolean.parseBoolean(ProjectTests.setting("expected.digests", "true"));
+
+	/** The manifest entries by relative path, loaded when first needed. */
+	private static Map<String, Entry> manifest = null;
+
+	/**
+	 * A single manifest entry.
+	 *
+	 * @param digest the hex digest of the normalized content
+	 * @param size the size of the expected file in bytes (used to detect an
+	 *   outdated manifest)
+	 */
+	public static record Entry(String digest, long size) {
+	}
+
+	/**
+	 * Checks whether the normalized actual output has the same digest as the
+	 * expected output file in the manifest. Returns false whenever that cannot
+	 * be determined, for example if there is no manifest entry or the expected
+	 * file has changed size since the manifest was generated.
+	 *
+	 * @param actual the actual output file
+	 * @param expected the expected output file
+	 * @return true if the digests match
+	 * @throws IOException if unable to read the files
+	 */
+	public static boolean matches(Path actual, Path expected) throws IOException {
+		if (!ENABLED || !ProjectPath.EXPECTED.text.equals("expected-nix")) {
+			return false;
+		}
+
+		Path relative = ProjectPath.EXPECTED.path.relativize(expected.normalize());
+		Entry entry = manifest().get(relative.toString().replace('\\', '/'));
+
+		if (entry == null || Files.size(expected) != entry.size()) {
+			return false;
+		}
+
+		return entry.digest().equals(digest(actual));
+	}
+
+	/**
+	 * Returns the manifest entries of the expected directory, loading them the
+	 * first time this is called.
+	 *
+	 * @return the manifest entries by path relative to the expected directory
+	 * @throws IOException if unable to read the manifest
+	 */
+	public static synchronized Map<String, Entry> manifest() throws IOException {
+		if (manifest == null) {
+			Map<String, Entry> entries = new HashMap<>();
+			Path path = ProjectPath.EXPECTED.path.resolve(MANIFEST);
+
+			if (Files.isReadable(path)) {
+				for (String line : Files.readAllLines(path, UTF_8)) {
+					String[] parts = line.split("\\s+", 3);
+
+					if (!line.startsWith("#") && parts.length == 3) {
+						entries.put(parts[2], new Entry(parts[0], Long.parseLong(parts[1])));
+					}
+				}
+			}
+
+			manifest = entries;
+		}
+
+		return manifest;
+	}
+
+	/**
+	 * Returns the hex SHA-256 digest of the whitespace-normalized file in a
+	 * single streaming pass. Trailing ASCII whitespace on every line and blank
+	 * lines at the end of the file are removed, and the remaining lines are
+	 * separated by a single newline.
+	 *
+	 * @param path the file to digest
+	 * @return the hex digest
+	 * @throws IOException if unable to read the file
+	 */
+	public static String digest(Path path) throws IOException {
+		MessageDigest digest = sha256();
+
+		byte[] input = new byte[1 << 16];
+		byte[] output = new byte[1 << 16];
+		int used = 0;
+
+		byte[] spaces = new byte[64]; // whitespace that may turn out to be trailing
+		int pendingSpaces = 0;
+		int pendingLines = 0;
+
+		try (InputStream in = Files.newInputStream(path)) {
+			int read;
+
+			while ((read = in.read(input)) >= 0) {
+				for (int i = 0; i < read; i++) {
+					byte b = input[i];
+
+					if (b == '\n') {
+						// trailing whitespace is discarded at the end of every line
+						pendingSpaces = 0;
+						pendingLines++;
+					}
+					else if (whitespace(b)) {
+						if (pendingSpaces == spaces.length) {
+							spaces = Arrays.copyOf(spaces, spaces.length * 2);
+						}
+
+						spaces[pendingSpaces++] = b;
+					}
+					else {
+						// make sure the output buffer can fit everything pending
+						int needed = pendingLines + pendingSpaces + 1;
+
+						if (used + needed > output.length) {
+							digest.update(output, 0, used);
+							used = 0;
+						}
+
+						if (needed > output.length) {
+							for (int j = 0; j < pendingLines; j++) {
+								digest.update((byte) '\n');
+							}
+
+							digest.update(spaces, 0, pendingSpaces);
+						}
+						else {
+							for (int j = 0; j < pendingLines; j++) {
+								output[used++] = '\n';
+							}
+
+							System.arraycopy(spaces, 0, output, used, pendingSpaces);
+							used += pendingSpaces;
+						}
+
+						output[used++] = b;
+						pendingLines = 0;
+						pendingSpaces = 0;
+					}
+				}
+			}
+		}
+
+		// anything still pending is trailing whitespace or blank lines
+		digest.update(output, 0, used);
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	/**
+	 * Checks if the byte is ASCII whitespace other than a newline, according to
+	 * {@link Character#isWhitespace(char)}.
+	 *
+	 * @param b the byte
+	 * @return true if the byte is whitespace
+	 */
+	private static boolean whitespace(byte b) {
+		return b == ' ' || (b >= '\t' && b <= '\r') || (b >= 0x1C && b <= 0x1F);
+	}
+
+	/**
+	 * Returns a new SHA-256 message digest.
+	 *
+	 * @return the message digest
+	 */
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is required by every Java platform.", e);
+		}
+	}
+
+	/**
+	 * Writes the manifest for every file in the expected directory.
+	 *
+	 * @param expected the expected directory
+	 * @return the number of files in the manifest
+	 * @throws IOException if unable to read or write the files
+	 */
+	public static int generate(Path expected) throws IOException {
+		String output = generated(expected);
+		Files.writeString(expected.resolve(MANIFEST), output, UTF_8);
+		return (int) output.lines().filter(line -> !line.startsWith("#")).count();
+	}
+
+	/**
+	 * Returns the manifest for every file in the expected directory without
+	 * writing it.
+	 *
+	 * @param expected the expected directory
+	 * @return the manifest content
+	 * @throws IOException if unable to read the files
+	 */
+	public static String generated(Path expected) throws IOException {
+		StringBuilder output = new StringBuilder();
+		output.append("# sha256 of the whitespace-normalized content, size in bytes, and path\n");
+
+		List<Path> files;
+
+		try (Stream<Path> stream = Files.walk(expected)) {
+			files = stream.filter(Files::isRegularFile)
+					.filter(path -> !path.getFileName().toString().equals(MANIFEST))
+					.sorted()
+					.toList();
+		}
+
+		for (Path file : files) {
+			String relative = expected.relativize(file).toString().replace('\\', '/');
+			output.append(String.format("%s %d %s\n", digest(file), Files.size(file), relative));
+		}
+
+		return output.toString();
+	}
+
+	/**
+	 * Regenerates the manifest of the Unix-like expected files.
+	 *
+	 * @param args unused
+	 * @throws IOException if unable to read or write the files
+	 */
+	public static void main(String[] args) throws IOException {
+		Path expected = Path.of(args.length > 0 ? args[0] : "expected-nix");
+		System.out.printf("Wrote %d digests to %s%n", generate(expected), expected.resolve(MANIFEST));
+	}
+
+	/** Prevent instantiating this class of static methods. */
+	private ProjectDigests() {
+	}
+}
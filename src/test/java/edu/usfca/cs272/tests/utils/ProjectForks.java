@@ -0,0 +1,466 @@
+package edu.usfca.cs272.tests.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+
+import edu.usfca.cs272.Driver;
+
+/**
+ * Benchmarks the {@link Driver} in freshly launched JVMs so that JIT and heap
+ * state from earlier tests cannot leak into the measurements. Every fork runs
+ * the driver several times in a row, so the first (cold) run and the later
+ * (steady-state) runs can be reported separately, along with the JVM startup
+ * and shutdown overhead of the process itself.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+public class ProjectForks {
+	/** The prefix the forked JVM uses to report the runtime of each run. */
+	public static final String PREFIX = "fork-run-nanos: ";
+
+	/** The prefix the forked JVM uses to report the baseline and peak retained heap. */
+	public static final String HEAP_PREFIX = "fork-heap-bytes: ";
+
+	/** The garbage collectors to sweep and their JVM flags. */
+	public static final Map<String, String> COLLECTORS = Map.of(
+			"G1", "-XX:+UseG1GC",
+			"Parallel", "-XX:+UseParallelGC",
+			"ZGC", "-XX:+UseZGC");
+
+	/**
+	 * The measurements of a single forked JVM.
+	 *
+	 * @param process the wall time of the entire process in nanoseconds
+	 * @param runs the wall time of each run inside the process in nanoseconds
+	 */
+	public static record Fork(long process, long[] runs) {
+		/**
+		 * Returns the time spent outside of the driver runs, which is mostly JVM
+		 * startup, class loading, and shutdown.
+		 *
+		 * @return the process overhead in nanoseconds
+		 */
+		public long overhead() {
+			return process - Arrays.stream(runs).sum();
+		}
+	}
+
+	/**
+	 * The heap measurements of a single forked JVM.
+	 *
+	 * @param heap the maximum heap size (e.g. "64m")
+	 * @param completed whether the driver finished without running out of memory
+	 * @param baseline the heap used in bytes after garbage collection before the
+	 *   driver started
+	 * @param peak the largest heap used in bytes after garbage collection while
+	 *   the driver was running
+	 * @param process the wall time of the entire process in nanoseconds
+	 */
+	public static record Footprint(String heap, boolean completed, long baseline, long peak, long process) {
+		/**
+		 * Returns the heap retained by the driver, which is the peak heap used after
+		 * garbage collection minus the baseline.
+		 *
+		 * @return the retained heap in bytes
+		 */
+		public long retained() {
+			return Math.max(0, peak - baseline);
+		}
+	}
+
+	/**
+	 * Launches a new JVM that runs the driver several times with the provided
+	 * arguments, and returns the timing of the process and each run.
+	 *
+	 * @param flags the JVM flags (e.g. garbage collector and heap size)
+	 * @param runs the number of times to run the driver inside the JVM
+	 * @param timeout the maximum time to wait for the process
+	 * @param args the driver arguments
+	 * @return the measurements of the fork
+	 * @throws IOException if unable to launch the process
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public static Fork fork(List<String> flags, int runs, Duration timeout, String[] args)
+			throws IOException, InterruptedException {
+		List<String> command = command(flags, ProjectForks.class, Stream.concat(
+				Stream.of(Integer.toString(runs)),
+				Arrays.stream(args)).toList());
+
+		Result result = execute(command, timeout, PREFIX);
+		List<String> times = result.values();
+
+		Assertions.assertTrue(result.exit() == 0 && times.size() == runs, result.debug(command));
+		return new Fork(result.elapsed(), times.stream().mapToLong(Long::parseLong).toArray());
+	}
+
+	/**
+	 * Launches a new JVM with the maximum heap size that builds the index with
+	 * the provided arguments, and returns the heap retained after garbage
+	 * collection. Running out of memory is not a failure, and is returned as a
+	 * footprint that did not complete.
+	 *
+	 * @param heap the maximum heap size (e.g. "64m")
+	 * @param interval the time between forced garbage collections
+	 * @param timeout the maximum time to wait for the process
+	 * @param args the driver arguments
+	 * @return the measurements of the fork
+	 * @throws IOException if unable to launch the process
+	 * @throws InterruptedException if interrupted while waiting
+	 *
+	 * @see HeapSampler
+	 */
+	public static Footprint footprint(String heap, Duration interval, Duration timeout, String[] args)
+			throws IOException, InterruptedException {
+		List<String> command = command(List.of("-Xmx" + heap, "-XX:+ExitOnOutOfMemoryError"), HeapSampler.class,
+				Stream.concat(Stream.of(Long.toString(interval.toMillis())), Arrays.stream(args)).toList());
+
+		Result result = execute(command, timeout, HEAP_PREFIX);
+
+		if (result.exit() != 0 && result.output().contains("OutOfMemoryError")) {
+			return new Footprint(heap, false, 0, 0, result.elapsed());
+		}
+
+		Assertions.assertTrue(result.exit() == 0 && result.values().size() == 1, result.debug(command));
+
+		String[] bytes = result.values().get(0).split(" ");
+		return new Footprint(heap, true, Long.parseLong(bytes[0]), Long.parseLong(bytes[1]), result.elapsed());
+	}
+
+	/**
+	 * The output of a forked JVM.
+	 *
+	 * @param exit the exit value, or -1 if the process timed out
+	 * @param values the values of every output line with the expected prefix
+	 * @param output every other line of output
+	 * @param elapsed the wall time of the entire process in nanoseconds
+	 */
+	private static record Result(int exit, List<String> values, String output, long elapsed) {
+		/**
+		 * Returns the debug output for a failed process.
+		 *
+		 * @param command the command of the process
+		 * @return the debug output
+		 */
+		private Supplier<String> debug(List<String> command) {
+			String debug = "%nCommand:%n    %s%nExit: %s%nOutput:%n%s";
+			String status = exit < 0 ? "timed out" : Integer.toString(exit);
+			return ProjectTests.debug(debug, String.join(" ", command), status, output);
+		}
+	}
+
+	/**
+	 * Launches a process and separates the output lines with the prefix from
+	 * all other output. The output is read on a separate thread so that the
+	 * timeout applies even if the process stops making progress, and the process
+	 * is destroyed if it times out or this thread is interrupted (for example by
+	 * a preemptive test timeout).
+	 *
+	 * @param command the command to launch
+	 * @param timeout the maximum time to wait for the process
+	 * @param prefix the prefix of the lines with values
+	 * @return the output of the process
+	 * @throws IOException if unable to launch the process
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	private static Result execute(List<String> command, Duration timeout, String prefix)
+			throws IOException, InterruptedException {
+		List<String> values = new ArrayList<>();
+		StringBuilder output = new StringBuilder();
+
+		long start = System.nanoTime();
+		Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+		Thread drain = new Thread(() -> {
+			try (BufferedReader reader = new BufferedReader(
+					new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+				String line;
+
+				while ((line = reader.readLine()) != null) {
+					synchronized (output) {
+						if (line.startsWith(prefix)) {
+							values.add(line.substring(prefix.length()).strip());
+						}
+						else {
+							output.append(line).append('\n');
+						}
+					}
+				}
+			}
+			catch (IOException e) {
+				// the stream closes when the process is destroyed
+			}
+		}, "fork-output");
+
+		drain.setDaemon(true);
+		drain.start();
+
+		try {
+			boolean finished = process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS);
+			long elapsed = System.nanoTime() - start;
+
+			if (!finished) {
+				process.destroyForcibly().waitFor(5, TimeUnit.SECONDS);
+			}
+
+			// the output ends once the process exits, unless another process still holds it
+			drain.join(Duration.ofSeconds(5));
+
+			synchronized (output) {
+				return new Result(finished ? process.exitValue() : -1,
+						List.copyOf(values), output.toString(), elapsed);
+			}
+		}
+		finally {
+			if (process.isAlive()) {
+				process.destroyForcibly();
+			}
+		}
+	}
+
+	/**
+	 * Creates the command to launch a main class in a new JVM with the same
+	 * classpath as this one.
+	 *
+	 * @param flags the JVM flags
+	 * @param main the main class to run
+	 * @param args the program arguments
+	 * @return the command
+	 */
+	public static List<String> command(List<String> flags, Class<?> main, List<String> args) {
+		return command(flags, System.getProperty("java.class.path"), main, args);
+	}
+
+	/**
+	 * Creates the command to launch a main class in a new JVM with the provided
+	 * classpath.
+	 *
+	 * @param flags the JVM flags
+	 * @param classpath the classpath
+	 * @param main the main class to run
+	 * @param args the program arguments
+	 * @return the command
+	 */
+	public static List<String> command(List<String> flags, String classpath, Class<?> main, List<String> args) {
+		List<String> command = new ArrayList<>();
+		command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+		command.addAll(flags);
+		command.add("-cp");
+		command.add(classpath);
+		command.add(main.getName());
+		command.addAll(args);
+		return command;
+	}
+
+	/**
+	 * Benchmarks the driver across a matrix of garbage collectors and heap
+	 * sizes, launching a fresh JVM for each round. Outputs the cold-start,
+	 * steady-state, and process overhead times as a markdown table.
+	 *
+	 * @param file the file name to use to save output
+	 * @param args the driver arguments
+	 * @param collectors the garbage collector names (see {@link #COLLECTORS})
+	 * @param heaps the maximum heap sizes (e.g. "512m")
+	 * @param rounds the number of JVMs to launch per configuration
+	 * @param runs the number of driver runs per JVM (at least 2, the first is cold)
+	 * @return the steady-state median runtime in milliseconds per configuration
+	 * @throws IOException if an I/O error occurs
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public static Map<String, Double> matrix(String file, String[] args, List<String> collectors,
+			List<String> heaps, int rounds, int runs) throws IOException, InterruptedException {
+		Map<String, Double> steady = new LinkedHashMap<>();
+		Map<String, long[]> timed = new LinkedHashMap<>();
+
+		StringWriter writer = new StringWriter();
+		PrintWriter out = new PrintWriter(writer);
+
+		out.printf("%n## Forked %s - %d JVMs x %d runs per configuration%n%n", file, rounds, runs);
+		out.printf("Arguments: `%s`%n%n", String.join(" ", args));
+		out.printf("| Collector | Heap | Cold (s) | Steady Median (s) | Steady P90 (s) | JVM Overhead (s) |%n");
+		out.printf("|-----------|-----:|---------:|------------------:|---------------:|-----------------:|%n");
+
+		for (String collector : collectors) {
+			String flag = COLLECTORS.get(collector);
+			Assertions.assertNotNull(flag, () -> "Unknown garbage collector: " + collector);
+
+			for (String heap : heaps) {
+				long[] cold = new long[rounds];
+				long[] overhead = new long[rounds];
+				List<Long> warm = new ArrayList<>();
+
+				for (int i = 0; i < rounds; i++) {
+					Fork fork = fork(List.of(flag, "-Xmx" + heap), runs, ProjectTests.LONG_TIMEOUT, args);
+					cold[i] = fork.runs()[0];
+					overhead[i] = fork.overhead();
+
+					for (int j = 1; j < fork.runs().length; j++) {
+						warm.add(fork.runs()[j]);
+					}
+				}
+
+				long[] millis = warm.stream().mapToLong(nanos -> Duration.ofNanos(nanos).toMillis()).toArray();
+				String label = collector + " " + heap;
+
+				steady.put(label, ProjectStatistics.median(millis));
+				timed.put(label, millis);
+
+				out.printf("| %-9s | %4s | %8.4f | %17.4f | %14.4f | %16.4f |%n", collector, heap,
+						secondsFromNanos(ProjectStatistics.median(cold)),
+						ProjectBenchmarks.seconds(ProjectStatistics.median(millis)),
+						ProjectBenchmarks.seconds(ProjectStatistics.percentile(millis, 90)),
+						secondsFromNanos(ProjectStatistics.median(overhead)));
+			}
+		}
+
+		out.printf("%nCold is the first run in each JVM; steady-state excludes it.%n%n");
+		out.flush();
+
+		String results = writer.toString();
+		System.out.print(results);
+
+		String name = "bench-forked-" + file.toLowerCase();
+		Files.writeString(ProjectPath.ACTUAL.resolve(name + ".txt"), results);
+		ProjectBaselines.save(name, ProjectBaselines.results(name, timed, null));
+
+		return steady;
+	}
+
+	/**
+	 * Converts nanoseconds into seconds.
+	 *
+	 * @param nanos the nanoseconds
+	 * @return the seconds
+	 */
+	private static double secondsFromNanos(double nanos) {
+		return nanos / Duration.ofSeconds(1).toNanos();
+	}
+
+	/**
+	 * Entry point of the forked JVM. The first argument is the number of times
+	 * to run the driver, and the remaining arguments are passed to the driver.
+	 * All driver output is suppressed, and only the runtimes are output.
+	 *
+	 * @param args the number of runs followed by the driver arguments
+	 * @throws Exception if the driver throws an exception
+	 */
+	public static void main(String[] args) throws Exception {
+		int runs = Integer.parseInt(args[0]);
+		String[] driver = Arrays.copyOfRange(args, 1, args.length);
+
+		PrintStream systemOut = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+		for (int i = 0; i < runs; i++) {
+			long start = System.nanoTime();
+			Driver.main(driver);
+			long elapsed = System.nanoTime() - start;
+
+			systemOut.println(PREFIX + elapsed);
+		}
+
+		systemOut.flush();
+	}
+
+	/**
+	 * Entry point of the forked JVM that measures the retained heap. Forces a
+	 * full garbage collection at a fixed interval while the driver runs, and
+	 * reports the largest heap used after any of them. The peak is a lower bound
+	 * that gets closer to the actual peak with a shorter interval, so outputting
+	 * the index (which keeps the full index reachable while writing) helps.
+	 */
+	public static class HeapSampler {
+		/**
+		 * Runs the driver once while sampling the heap. The first argument is the
+		 * time in milliseconds between samples, and the remaining arguments are
+		 * passed to the driver. All driver output is suppressed, and only the
+		 * baseline and peak heap are output.
+		 *
+		 * @param args the sample interval followed by the driver arguments
+		 * @throws Exception if the driver throws an exception
+		 */
+		public static void main(String[] args) throws Exception {
+			long interval = Math.max(1, Long.parseLong(args[0]));
+			String[] driver = Arrays.copyOfRange(args, 1, args.length);
+
+			PrintStream systemOut = System.out;
+			System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+			long baseline = collect();
+			AtomicLong peak = new AtomicLong(baseline);
+
+			ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(task -> {
+				Thread thread = new Thread(task, "heap-sampler");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+			sampler.scheduleWithFixedDelay(() -> peak.accumulateAndGet(collect(), Math::max),
+					interval, interval, TimeUnit.MILLISECONDS);
+
+			try {
+				Driver.main(driver);
+			}
+			finally {
+				sampler.shutdown();
+				sampler.awaitTermination(1, TimeUnit.MINUTES);
+			}
+
+			systemOut.println(HEAP_PREFIX + baseline + " " + peak.get());
+			systemOut.flush();
+		}
+
+		/**
+		 * Forces a full garbage collection and returns the heap used right after
+		 * it, according to the collection usage of every heap memory pool (which
+		 * does not include anything allocated since).
+		 *
+		 * @return the heap used in bytes after garbage collection
+		 */
+		private static long collect() {
+			System.gc();
+
+			return ManagementFactory.getMemoryPoolMXBeans().stream()
+					.filter(pool -> pool.getType() == MemoryType.HEAP)
+					.map(MemoryPoolMXBean::getCollectionUsage)
+					.filter(Objects::nonNull)
+					.mapToLong(MemoryUsage::getUsed)
+					.sum();
+		}
+
+		/** Prevent instantiating this class of static methods. */
+		private HeapSampler() {
+		}
+	}
+
+	/** Prevent instantiating this class of static methods. */
+	private ProjectForks() {
+	}
+}
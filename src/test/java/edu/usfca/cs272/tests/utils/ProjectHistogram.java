@@ -0,0 +1,228 @@
+package edu.usfca.cs272.tests.utils;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/**
+ * A small high-dynamic-range (HDR) histogram for recording latencies. Values
+ * are counted in buckets whose width grows with the magnitude of the value, so
+ * that every recorded value is accurate to the configured number of
+ * significant digits while the memory used stays fixed (a few thousand
+ * counters) no matter how many values are recorded. This follows the same
+ * bucket layout as the HdrHistogram library, without the dependency.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+public class ProjectHistogram {
+	/** The number of bits used for the linear sub-buckets. */
+	private final int subBits;
+
+	/** The number of sub-buckets in the first (linear) bucket. */
+	private final int subCount;
+
+	/** The number of sub-buckets in each following bucket. */
+	private final int subHalf;
+
+	/** The largest value that can be recorded without clamping. */
+	private final long highest;
+
+	/** The number of values recorded in each bucket. */
+	private final long[] counts;
+
+	/** The total number of values recorded. */
+	private long total;
+
+	/** The sum of all values recorded. */
+	private double sum;
+
+	/** The smallest value recorded. */
+	private long min;
+
+	/** The largest value recorded. */
+	private long max;
+
+	/**
+	 * Initializes an empty histogram.
+	 *
+	 * @param highest the largest value to track precisely (larger values are
+	 *   counted in the last bucket, but the exact maximum is still kept)
+	 * @param digits the number of significant decimal digits to keep (1 to 5)
+	 * @throws IllegalArgumentException if the arguments are out of range
+	 */
+	public ProjectHistogram(long highest, int digits) {
+		if (highest < 2 || digits < 1 || digits > 5) {
+			throw new IllegalArgumentException("Invalid histogram range or precision.");
+		}
+
+		// enough linear sub-buckets to separate values at the requested precision
+		long largest = 2 * (long) Math.pow(10, digits);
+		this.subBits = 64 - Long.numberOfLeadingZeros(largest - 1);
+		this.subCount = 1 << subBits;
+		this.subHalf = subCount / 2;
+		this.highest = highest;
+		this.counts = new long[index(highest) + 1];
+		this.min = Long.MAX_VALUE;
+		this.max = 0;
+	}
+
+	/**
+	 * Initializes an empty histogram that can track values up to one hour in
+	 * microseconds with 3 significant digits.
+	 */
+	public ProjectHistogram() {
+		this(3_600_000_000L, 3);
+	}
+
+	/**
+	 * Records a value.
+	 *
+	 * @param value the value to record
+	 * @throws IllegalArgumentException if the value is negative
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Unable to record negative value: " + value);
+		}
+
+		counts[index(Math.min(value, highest))]++;
+		total++;
+		sum += value;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Returns the bucket index for a value.
+	 *
+	 * @param value the value
+	 * @return the bucket index
+	 */
+	private int index(long value) {
+		int magnitude = 63 - Long.numberOfLeadingZeros(value | 1);
+
+		if (magnitude < subBits) {
+			return (int) value;
+		}
+
+		int shift = magnitude - subBits + 1;
+		int sub = (int) (value >>> shift);
+		return subCount + (shift - 1) * subHalf + (sub - subHalf);
+	}
+
+	/**
+	 * Returns the largest value that falls within the same bucket as the index.
+	 *
+	 * @param index the bucket index
+	 * @return the highest equivalent value
+	 */
+	private long highestEquivalent(int index) {
+		if (index < subCount) {
+			return index;
+		}
+
+		int shift = (index - subCount) / subHalf + 1;
+		long sub = (index - subCount) % subHalf + subHalf;
+		return (sub << shift) + (1L << shift) - 1;
+	}
+
+	/**
+	 * Returns the value at the given percentile. The value returned is the
+	 * highest value equivalent (at the histogram precision) to the recorded
+	 * value at that percentile, and never more than the exact maximum.
+	 *
+	 * @param percentile the percentile from 0 to 100
+	 * @return the value at the percentile, or 0 if nothing was recorded
+	 */
+	public long percentile(double percentile) {
+		if (total == 0) {
+			return 0;
+		}
+
+		double clamped = Math.max(0, Math.min(100, percentile));
+		long target = Math.max(1, (long) Math.ceil(clamped / 100 * total));
+		long seen = 0;
+
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+
+			if (seen >= target) {
+				return Math.min(highestEquivalent(i), max);
+			}
+		}
+
+		return max;
+	}
+
+	/**
+	 * Returns the number of values recorded.
+	 *
+	 * @return the number of values recorded
+	 */
+	public long count() {
+		return total;
+	}
+
+	/**
+	 * Returns the smallest value recorded.
+	 *
+	 * @return the smallest value, or 0 if nothing was recorded
+	 */
+	public long min() {
+		return total == 0 ? 0 : min;
+	}
+
+	/**
+	 * Returns the largest value recorded.
+	 *
+	 * @return the largest value, or 0 if nothing was recorded
+	 */
+	public long max() {
+		return max;
+	}
+
+	/**
+	 * Returns the mean of the values recorded.
+	 *
+	 * @return the mean, or 0 if nothing was recorded
+	 */
+	public double mean() {
+		return total == 0 ? 0 : sum / total;
+	}
+
+	/**
+	 * Returns the percentile distribution in the same plain-text layout as the
+	 * HdrHistogram percentile output, with values divided by the scale (e.g.
+	 * 1000 to output microseconds as milliseconds).
+	 *
+	 * @param scale the amount to divide each value by
+	 * @return the percentile distribution
+	 */
+	public String distribution(double scale) {
+		StringWriter writer = new StringWriter();
+		PrintWriter out = new PrintWriter(writer);
+
+		out.printf("%12s %14s %10s%n%n", "Value", "Percentile", "TotalCount");
+
+		long seen = 0;
+
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] > 0) {
+				seen += counts[i];
+				out.printf("%12.3f %14.12f %10d%n", Math.min(highestEquivalent(i), max) / scale,
+						(double) seen / total, seen);
+			}
+		}
+
+		out.printf("#[Mean    = %12.3f, Max        = %12.3f]%n", mean() / scale, max / scale);
+		out.printf("#[Count   = %12d, Min        = %12.3f]%n", total, min() / scale);
+		out.flush();
+		return writer.toString();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d p50=%d p90=%d p99=%d max=%d",
+				total, percentile(50), percentile(90), percentile(99), max);
+	}
+}
@@ -0,0 +1,773 @@
+package edu.usfca.cs272.tests.utils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal JSON writing and parsing for the small machine-readable files
+ * produced by the benchmarks. Objects are represented as maps, arrays as lists,
+ * and numbers as doubles when parsed. Also streams and compares large JSON
+ * output files structurally, token by token, without parsing either file into
+ * memory.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+public class ProjectJson {
+	/** The format of valid JSON numbers. */
+	private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?");
+
+	/**
+	 * Returns the value as pretty-printed JSON. Supports maps with string keys,
+	 * lists, arrays of longs or doubles, numbers, strings, booleans, and null.
+	 *
+	 * @param value the value to convert
+	 * @return the JSON text
+	 */
+	public static String toJson(Object value) {
+		StringBuilder json = new StringBuilder();
+		write(value, json, 0);
+		return json.append('\n').toString();
+	}
+
+	/**
+	 * Writes the value as JSON at the provided indent level.
+	 *
+	 * @param value the value to write
+	 * @param json the output
+	 * @param level the indent level
+	 */
+	private static void write(Object value, StringBuilder json, int level) {
+		switch (value) {
+			case null -> json.append("null");
+			case String text -> quote(text, json);
+			case Boolean bool -> json.append(bool);
+			case Double number when !Double.isFinite(number) -> json.append("null");
+			case Number number -> json.append(number);
+			case long[] array -> write(Arrays.stream(array).boxed().toList(), json, level);
+			case double[] array -> write(Arrays.stream(array).boxed().toList(), json, level);
+			case Map<?, ?> map -> {
+				json.append('{');
+				var iterator = map.entrySet().iterator();
+
+				while (iterator.hasNext()) {
+					var entry = iterator.next();
+					json.append('\n').append("  ".repeat(level + 1));
+					quote(String.valueOf(entry.getKey()), json);
+					json.append(": ");
+					write(entry.getValue(), json, level + 1);
+					json.append(iterator.hasNext() ? "," : "");
+				}
+
+				json.append('\n').append("  ".repeat(level)).append('}');
+			}
+			case List<?> list -> {
+				json.append('[');
+
+				for (int i = 0; i < list.size(); i++) {
+					json.append('\n').append("  ".repeat(level + 1));
+					write(list.get(i), json, level + 1);
+					json.append(i < list.size() - 1 ? "," : "");
+				}
+
+				json.append('\n').append("  ".repeat(level)).append(']');
+			}
+			default -> quote(value.toString(), json);
+		}
+	}
+
+	/**
+	 * Writes the text as a quoted and escaped JSON string.
+	 *
+	 * @param text the text to quote
+	 * @param json the output
+	 */
+	private static void quote(String text, StringBuilder json) {
+		json.append('"');
+
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+
+			switch (c) {
+				case '"' -> json.append("\\\"");
+				case '\\' -> json.append("\\\\");
+				case '\n' -> json.append("\\n");
+				case '\r' -> json.append("\\r");
+				case '\t' -> json.append("\\t");
+				default -> {
+					if (c < 0x20) {
+						json.append(String.format("\\u%04x", (int) c));
+					}
+					else {
+						json.append(c);
+					}
+				}
+			}
+		}
+
+		json.append('"');
+	}
+
+	/**
+	 * Parses JSON text into maps, lists, doubles, strings, booleans, and nulls.
+	 *
+	 * @param text the JSON text
+	 * @return the parsed value
+	 * @throws IllegalArgumentException if the text is not valid JSON
+	 */
+	public static Object parse(String text) {
+		Parser parser = new Parser(text);
+		Object value = parser.value();
+		parser.skipWhitespace();
+
+		if (parser.index < text.length()) {
+			throw parser.error("Unexpected trailing text");
+		}
+
+		return value;
+	}
+
+	/**
+	 * Returns the nested value at the provided keys, or null if any key is
+	 * missing along the way.
+	 *
+	 * @param value the parsed JSON value
+	 * @param keys the object keys to follow
+	 * @return the nested value or null
+	 */
+	public static Object get(Object value, String... keys) {
+		Object current = value;
+
+		for (String key : keys) {
+			if (!(current instanceof Map<?, ?> map)) {
+				return null;
+			}
+
+			current = map.get(key);
+		}
+
+		return current;
+	}
+
+	/**
+	 * Compares two JSON files structurally, token by token, without ever holding
+	 * either document in memory. Whitespace and formatting are ignored, and
+	 * numbers are compared by value (so {@code 0.5} and {@code 0.50000000} are
+	 * equal). Object members must appear in the same order, since the project
+	 * outputs are always sorted.
+	 *
+	 * @param actual the actual JSON file
+	 * @param expected the expected JSON file
+	 * @return null if equal, or the JSON path and description of the first
+	 *   difference
+	 * @throws IOException if unable to read either file
+	 * @throws IllegalArgumentException if either file is not valid JSON
+	 */
+	public static String mismatch(Path actual, Path expected) throws IOException {
+		try (
+				Tokenizer tokens1 = new Tokenizer(Files.newBufferedReader(actual, UTF_8));
+				Tokenizer tokens2 = new Tokenizer(Files.newBufferedReader(expected, UTF_8));
+		) {
+			// the containers (maps for objects, lists for arrays) around the current token
+			Deque<Frame> path = new ArrayDeque<>();
+
+			while (true) {
+				Token token1 = tokens1.next();
+				Token token2 = tokens2.next();
+
+				if (!token1.matches(token2)) {
+					return String.format("at %s: expected %s but found %s", path(path), token2, token1);
+				}
+
+				Frame frame = path.peek();
+
+				switch (token2.type()) {
+					case END -> {
+						return null;
+					}
+					case BEGIN_OBJECT -> path.push(new Frame(true));
+					case BEGIN_ARRAY -> path.push(new Frame(false));
+					case END_OBJECT, END_ARRAY -> path.pop();
+					case COMMA -> frame.next();
+					case STRING -> {
+						if (frame != null && frame.object && frame.key == null) {
+							frame.key = token2.text();
+						}
+					}
+					default -> {
+						// nothing to track for colons and other values
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Formats the JSON path of the containers, for example
+	 * {@code $["hello"][0].count}.
+	 *
+	 * @param path the containers from innermost to outermost
+	 * @return the JSON path
+	 */
+	private static String path(Deque<Frame> path) {
+		StringBuilder builder = new StringBuilder("$");
+		Iterator<Frame> frames = path.descendingIterator();
+
+		while (frames.hasNext()) {
+			Frame frame = frames.next();
+
+			if (!frame.object) {
+				builder.append('[').append(frame.index).append(']');
+			}
+			else if (frame.key != null && frame.key.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+				builder.append('.').append(frame.key);
+			}
+			else if (frame.key != null) {
+				builder.append('[');
+				quote(frame.key, builder);
+				builder.append(']');
+			}
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * The current position within an object or array while streaming.
+	 */
+	private static class Frame {
+		/** Whether this is an object (or an array). */
+		private final boolean object;
+
+		/** The current member name of an object (null until read). */
+		private String key;
+
+		/** The current element index of an array. */
+		private int index;
+
+		/**
+		 * Initializes the frame.
+		 *
+		 * @param object whether this is an object (or an array)
+		 */
+		private Frame(boolean object) {
+			this.object = object;
+			this.key = null;
+			this.index = 0;
+		}
+
+		/** Moves to the next member or element. */
+		private void next() {
+			key = null;
+			index++;
+		}
+	}
+
+	/** The types of JSON tokens. */
+	private static enum TokenType {
+		/** The start of an object. */
+		BEGIN_OBJECT,
+
+		/** The end of an object. */
+		END_OBJECT,
+
+		/** The start of an array. */
+		BEGIN_ARRAY,
+
+		/** The end of an array. */
+		END_ARRAY,
+
+		/** The separator between names and values. */
+		COLON,
+
+		/** The separator between members or elements. */
+		COMMA,
+
+		/** A string (either a name or a value). */
+		STRING,
+
+		/** A number. */
+		NUMBER,
+
+		/** One of true, false, or null. */
+		LITERAL,
+
+		/** The end of the file. */
+		END
+	}
+
+	/**
+	 * A single JSON token.
+	 *
+	 * @param type the token type
+	 * @param text the unescaped text of strings, numbers, and literals
+	 */
+	private static record Token(TokenType type, String text) {
+		/**
+		 * Checks whether two tokens are equal, comparing numbers by value.
+		 *
+		 * @param other the other token
+		 * @return true if the tokens are equal
+		 */
+		private boolean matches(Token other) {
+			if (type != other.type) {
+				return false;
+			}
+
+			return switch (type) {
+				case STRING, LITERAL -> text.equals(other.text);
+				case NUMBER -> text.equals(other.text) || new BigDecimal(text).compareTo(new BigDecimal(other.text)) == 0;
+				default -> true;
+			};
+		}
+
+		@Override
+		public String toString() {
+			return switch (type) {
+				case STRING -> {
+					StringBuilder builder = new StringBuilder();
+					quote(text, builder);
+					yield builder.toString();
+				}
+				case NUMBER, LITERAL -> text;
+				case END -> "end of file";
+				default -> type.name().toLowerCase().replace('_', ' ');
+			};
+		}
+	}
+
+	/**
+	 * Reads JSON tokens one at a time from a reader.
+	 */
+	private static class Tokenizer implements Closeable {
+		/** The reader to tokenize. */
+		private final Reader reader;
+
+		/** The characters read but not yet tokenized. */
+		private final char[] buffer;
+
+		/** The number of characters in the buffer. */
+		private int size;
+
+		/** The position of the next character in the buffer. */
+		private int offset;
+
+		/** The next character (or -1 at the end). */
+		private int current;
+
+		/** The number of characters read so far. */
+		private long position;
+
+		/**
+		 * Initializes the tokenizer.
+		 *
+		 * @param reader the reader to tokenize
+		 * @throws IOException if unable to read
+		 */
+		private Tokenizer(Reader reader) throws IOException {
+			this.reader = reader;
+			this.buffer = new char[8192];
+			this.size = 0;
+			this.offset = 0;
+			this.position = 0;
+			advance();
+		}
+
+		/**
+		 * Moves to the next character.
+		 *
+		 * @return the previous character
+		 * @throws IOException if unable to read
+		 */
+		private int advance() throws IOException {
+			int previous = current;
+
+			if (offset == size) {
+				size = Math.max(reader.read(buffer), 0);
+				offset = 0;
+			}
+
+			current = offset < size ? buffer[offset++] : -1;
+			position++;
+			return previous;
+		}
+
+		/**
+		 * Reads the next token.
+		 *
+		 * @return the next token
+		 * @throws IOException if unable to read
+		 */
+		private Token next() throws IOException {
+			while (current >= 0 && Character.isWhitespace(current)) {
+				advance();
+			}
+
+			if (current < 0) {
+				return new Token(TokenType.END, null);
+			}
+
+			return switch (current) {
+				case '{' -> single(TokenType.BEGIN_OBJECT);
+				case '}' -> single(TokenType.END_OBJECT);
+				case '[' -> single(TokenType.BEGIN_ARRAY);
+				case ']' -> single(TokenType.END_ARRAY);
+				case ':' -> single(TokenType.COLON);
+				case ',' -> single(TokenType.COMMA);
+				case '"' -> new Token(TokenType.STRING, string());
+				default -> {
+					StringBuilder builder = new StringBuilder();
+
+					while (current >= 0 && (Character.isLetterOrDigit(current) || "+-.".indexOf(current) >= 0)) {
+						builder.append((char) advance());
+					}
+
+					String text = builder.toString();
+
+					if (text.equals("true") || text.equals("false") || text.equals("null")) {
+						yield new Token(TokenType.LITERAL, text);
+					}
+
+					if (text.isEmpty() || !NUMBER.matcher(text).matches()) {
+						throw error("Invalid value");
+					}
+
+					yield new Token(TokenType.NUMBER, text);
+				}
+			};
+		}
+
+		/**
+		 * Consumes a single-character token.
+		 *
+		 * @param type the token type
+		 * @return the token
+		 * @throws IOException if unable to read
+		 */
+		private Token single(TokenType type) throws IOException {
+			advance();
+			return new Token(type, null);
+		}
+
+		/**
+		 * Reads and unescapes a string.
+		 *
+		 * @return the unescaped string
+		 * @throws IOException if unable to read
+		 */
+		private String string() throws IOException {
+			advance(); // opening quote
+			StringBuilder builder = new StringBuilder();
+
+			while (current >= 0) {
+				int c = advance();
+
+				if (c == '"') {
+					return builder.toString();
+				}
+
+				if (c != '\\') {
+					builder.append((char) c);
+					continue;
+				}
+
+				int escaped = advance();
+
+				switch (escaped) {
+					case 'b' -> builder.append('\b');
+					case 'f' -> builder.append('\f');
+					case 'n' -> builder.append('\n');
+					case 'r' -> builder.append('\r');
+					case 't' -> builder.append('\t');
+					case 'u' -> {
+						char[] hex = new char[4];
+
+						for (int i = 0; i < hex.length; i++) {
+							if (current < 0) {
+								throw error("Invalid unicode escape");
+							}
+
+							hex[i] = (char) advance();
+						}
+
+						builder.append((char) Integer.parseInt(new String(hex), 16));
+					}
+					case -1 -> throw error("Unterminated string");
+					default -> builder.append((char) escaped);
+				}
+			}
+
+			throw error("Unterminated string");
+		}
+
+		/**
+		 * Creates an exception for an error at the current position.
+		 *
+		 * @param message the error message
+		 * @return the exception
+		 */
+		private IllegalArgumentException error(String message) {
+			return new IllegalArgumentException(message + " at position " + position);
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+
+	/**
+	 * A simple recursive-descent JSON parser.
+	 */
+	private static class Parser {
+		/** The text being parsed. */
+		private final String text;
+
+		/** The current position within the text. */
+		private int index;
+
+		/**
+		 * Initializes the parser.
+		 *
+		 * @param text the text to parse
+		 */
+		private Parser(String text) {
+			this.text = text;
+			this.index = 0;
+		}
+
+		/**
+		 * Parses the next value.
+		 *
+		 * @return the parsed value
+		 */
+		private Object value() {
+			skipWhitespace();
+
+			if (index >= text.length()) {
+				throw error("Unexpected end of text");
+			}
+
+			char c = text.charAt(index);
+
+			return switch (c) {
+				case '{' -> object();
+				case '[' -> array();
+				case '"' -> string();
+				case 't' -> literal("true", Boolean.TRUE);
+				case 'f' -> literal("false", Boolean.FALSE);
+				case 'n' -> literal("null", null);
+				default -> number();
+			};
+		}
+
+		/**
+		 * Parses an object.
+		 *
+		 * @return the parsed object
+		 */
+		private Map<String, Object> object() {
+			Map<String, Object> map = new LinkedHashMap<>();
+			expect('{');
+			skipWhitespace();
+
+			if (peek() == '}') {
+				index++;
+				return map;
+			}
+
+			do {
+				skipWhitespace();
+				String key = string();
+				skipWhitespace();
+				expect(':');
+				map.put(key, value());
+				skipWhitespace();
+			}
+			while (consume(','));
+
+			expect('}');
+			return map;
+		}
+
+		/**
+		 * Parses an array.
+		 *
+		 * @return the parsed array
+		 */
+		private List<Object> array() {
+			List<Object> list = new ArrayList<>();
+			expect('[');
+			skipWhitespace();
+
+			if (peek() == ']') {
+				index++;
+				return list;
+			}
+
+			do {
+				list.add(value());
+				skipWhitespace();
+			}
+			while (consume(','));
+
+			expect(']');
+			return list;
+		}
+
+		/**
+		 * Parses a string.
+		 *
+		 * @return the parsed string
+		 */
+		private String string() {
+			expect('"');
+			StringBuilder builder = new StringBuilder();
+
+			while (index < text.length()) {
+				char c = text.charAt(index++);
+
+				if (c == '"') {
+					return builder.toString();
+				}
+
+				if (c != '\\') {
+					builder.append(c);
+					continue;
+				}
+
+				if (index >= text.length()) {
+					break;
+				}
+
+				char escaped = text.charAt(index++);
+
+				switch (escaped) {
+					case 'b' -> builder.append('\b');
+					case 'f' -> builder.append('\f');
+					case 'n' -> builder.append('\n');
+					case 'r' -> builder.append('\r');
+					case 't' -> builder.append('\t');
+					case 'u' -> {
+						if (index + 4 > text.length()) {
+							throw error("Invalid unicode escape");
+						}
+
+						builder.append((char) Integer.parseInt(text.substring(index, index + 4), 16));
+						index += 4;
+					}
+					default -> builder.append(escaped);
+				}
+			}
+
+			throw error("Unterminated string");
+		}
+
+		/**
+		 * Parses a number.
+		 *
+		 * @return the parsed number
+		 */
+		private Double number() {
+			int start = index;
+
+			while (index < text.length() && "+-0123456789.eE".indexOf(text.charAt(index)) >= 0) {
+				index++;
+			}
+
+			try {
+				return Double.valueOf(text.substring(start, index));
+			}
+			catch (NumberFormatException e) {
+				throw error("Invalid number");
+			}
+		}
+
+		/**
+		 * Parses a literal value.
+		 *
+		 * @param literal the expected literal text
+		 * @param value the value of the literal
+		 * @return the value
+		 */
+		private Object literal(String literal, Object value) {
+			if (!text.startsWith(literal, index)) {
+				throw error("Invalid literal");
+			}
+
+			index += literal.length();
+			return value;
+		}
+
+		/** Skips any whitespace at the current position. */
+		private void skipWhitespace() {
+			while (index < text.length() && Character.isWhitespace(text.charAt(index))) {
+				index++;
+			}
+		}
+
+		/**
+		 * Returns the current character without consuming it.
+		 *
+		 * @return the current character or 0 at the end of the text
+		 */
+		private char peek() {
+			return index < text.length() ? text.charAt(index) : 0;
+		}
+
+		/**
+		 * Consumes the expected character if it is next.
+		 *
+		 * @param expected the expected character
+		 * @return true if the character was consumed
+		 */
+		private boolean consume(char expected) {
+			if (peek() == expected) {
+				index++;
+				return true;
+			}
+
+			return false;
+		}
+
+		/**
+		 * Consumes the expected character or throws an exception.
+		 *
+		 * @param expected the expected character
+		 */
+		private void expect(char expected) {
+			if (!consume(expected)) {
+				throw error("Expected '" + expected + "'");
+			}
+		}
+
+		/**
+		 * Creates an exception for an error at the current position.
+		 *
+		 * @param message the error message
+		 * @return the exception
+		 */
+		private IllegalArgumentException error(String message) {
+			return new IllegalArgumentException(message + " at position " + index);
+		}
+	}
+
+	/** Prevent instantiating this class of static methods. */
+	private ProjectJson() {
+	}
+}
@@ -0,0 +1,1197 @@
+package edu.usfca.cs272.tests.utils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import opennlp.tools.stemmer.Stemmer;
+import opennlp.tools.stemmer.snowball.SnowballStemmer;
+
+/**
+ * A reference implementation of the search engine output, used to check the
+ * output of runs on inputs that have no checked-in expected files (such as the
+ * generated corpora from {@link ProjectCorpus}). Produces the same counts,
+ * index, exact search, and partial search JSON as the expected files.
+ *
+ * Only the list of locations and their word counts are kept in memory. Every
+ * word position is written to sorted runs on disk whenever
+ * {@link #BUFFER} positions are buffered, and the runs are merged one word at a
+ * time to stream the index. Positions are delta and varint encoded both in
+ * memory and on disk, which usually takes 1 to 2 bytes per position. Search
+ * hits are sorted the same way, so only the results of a single query are ever
+ * in memory at once. The memory used does not depend on the size of the input
+ * files, only on the number of files. At most {@link #FAN_IN} runs are open at
+ * once, so huge inputs are merged in several passes instead of running out of
+ * file handles.
+ *
+ * Can be run from the project-tests directory with the same arguments as the
+ * driver (for example {@code -text input/text -query query/words.txt -results}),
+ * and writes the same output files.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+public class ProjectOracle {
+	/** The maximum number of positions or search hits buffered before writing a sorted run. */
+	public static final int BUFFER = ProjectTests.setting("oracle.buffer", 1 << 20);
+
+	/** The maximum number of sorted runs merged (and open) at once. */
+	public static final int FAN_IN = Math.max(2, ProjectTests.setting("oracle.fan.in", 64));
+
+	/** Regular expression that matches everything that is not a letter or whitespace. */
+	private static final Pattern CLEAN = Pattern.compile("(?U)[^\\p{Alpha}\\p{Space}]+");
+
+	/** Regular expression that matches one or more whitespace characters. */
+	private static final Pattern SPLIT = Pattern.compile("(?U)\\p{Space}+");
+
+	/** The directory for the sorted runs. */
+	private final Path temp;
+
+	/** The maximum number of positions or hits buffered in memory. */
+	private final int buffer;
+
+	/** The stemmer (not thread-safe, so never shared between instances). */
+	private final Stemmer stemmer;
+
+	/** The locations in sorted order, so location ids compare like the paths. */
+	private String[] locations;
+
+	/** The number of words in every location by id. */
+	private int[] counts;
+
+	/** The cleaned and stemmed queries in sorted order. */
+	private String[] queries;
+
+	/** The ids of the queries that contain each query stem. */
+	private Map<String, int[]> stems;
+
+	/** The number of sorted runs written so far (used for unique file names). */
+	private int written;
+
+	/**
+	 * Initializes an oracle that writes its sorted runs to the directory.
+	 *
+	 * @param temp the directory for the sorted runs
+	 * @param buffer the maximum number of positions or hits buffered in memory
+	 */
+	private ProjectOracle(Path temp, int buffer) {
+		this.temp = temp;
+		this.buffer = Math.max(1, buffer);
+		this.stemmer = new SnowballStemmer(SnowballStemmer.ALGORITHM.ENGLISH);
+		this.locations = new String[0];
+		this.counts = new int[0];
+		this.queries = new String[0];
+		this.stems = Map.of();
+		this.written = 0;
+	}
+
+	/**
+	 * Generates the expected output for the input and queries. Any of the output
+	 * paths may be null to skip that output, and the queries are only needed if
+	 * either of the search results are output.
+	 *
+	 * @param input the text file or directory of text files to index (or null)
+	 * @param query the query file (or null)
+	 * @param counts the output path of the word counts (or null)
+	 * @param index the output path of the inverted index (or null)
+	 * @param exact the output path of the exact search results (or null)
+	 * @param partial the output path of the partial search results (or null)
+	 * @throws IOException if unable to read or write any files
+	 */
+	public static void generate(Path input, Path query, Path counts, Path index, Path exact, Path partial) throws IOException {
+		Path temp = Files.createTempDirectory("oracle-");
+
+		try {
+			ProjectOracle oracle = new ProjectOracle(temp, BUFFER);
+
+			if (input != null) {
+				oracle.locate(input);
+			}
+
+			if (query != null && (exact != null || partial != null)) {
+				oracle.queries(query);
+			}
+
+			List<Path> runs = oracle.postings();
+
+			if (counts != null) {
+				oracle.writeCounts(counts);
+			}
+
+			Hits hitsExact = exact == null ? null : oracle.new Hits();
+			Hits hitsPartial = partial == null ? null : oracle.new Hits();
+
+			try (Writer writer = index == null ? null : Files.newBufferedWriter(index, UTF_8)) {
+				oracle.merge(runs, writer, hitsExact, hitsPartial);
+			}
+
+			if (hitsExact != null) {
+				oracle.writeResults(hitsExact, exact);
+			}
+
+			if (hitsPartial != null) {
+				oracle.writeResults(hitsPartial, partial);
+			}
+		}
+		finally {
+			ProjectTests.deleteFiles(temp);
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Generates the expected output for the same arguments as the driver. The
+	 * {@code -results} output is the exact search results unless the
+	 * {@code -partial} flag is also provided.
+	 *
+	 * @param args the driver arguments
+	 * @throws IOException if unable to read or write any files
+	 */
+	public static void generate(String[] args) throws IOException {
+		Map<String, String> flags = new HashMap<>();
+
+		for (int i = 0; i < args.length; i++) {
+			if (isFlag(args[i])) {
+				String flag = args[i];
+				flags.put(flag, i + 1 < args.length && !isFlag(args[i + 1]) ? args[++i] : null);
+			}
+		}
+
+		Path input = path(flags, ProjectFlag.TEXT);
+		Path query = path(flags, ProjectFlag.QUERY);
+		Path results = path(flags, ProjectFlag.RESULTS);
+		boolean partial = flags.containsKey(ProjectFlag.PARTIAL.flag);
+
+		generate(input, query, path(flags, ProjectFlag.COUNTS), path(flags, ProjectFlag.INDEX),
+				partial ? null : results, partial ? results : null);
+	}
+
+	/**
+	 * Returns the path provided for the flag, its default path if no value was
+	 * provided, or null if the flag is missing.
+	 *
+	 * @param flags the parsed flags and values
+	 * @param flag the flag to look up
+	 * @return the path or null
+	 */
+	private static Path path(Map<String, String> flags, ProjectFlag flag) {
+		if (!flags.containsKey(flag.flag)) {
+			return null;
+		}
+
+		String value = flags.get(flag.flag);
+		return value != null ? Path.of(value) : flag.path;
+	}
+
+	/**
+	 * Checks if the argument is a flag, the same way as the driver.
+	 *
+	 * @param arg the argument
+	 * @return true if the argument is a flag
+	 */
+	private static boolean isFlag(String arg) {
+		return arg != null && arg.length() > 1 && arg.charAt(0) == '-'
+				&& !Character.isDigit(arg.codePointAt(1)) && !Character.isWhitespace(arg.codePointAt(1));
+	}
+
+	/**
+	 * Cleans, splits, and stems the line of text into words.
+	 *
+	 * @param line the line of text
+	 * @return the stemmed words
+	 */
+	private String[] parse(String line) {
+		String cleaned = Normalizer.normalize(line, Normalizer.Form.NFD);
+		cleaned = CLEAN.matcher(cleaned).replaceAll("").toLowerCase(Locale.ROOT);
+
+		return SPLIT.splitAsStream(cleaned)
+				.filter(word -> !word.isEmpty())
+				.map(word -> stemmer.stem(word).toString())
+				.toArray(String[]::new);
+	}
+
+	/**
+	 * Finds every location to index in sorted order.
+	 *
+	 * @param input the text file or directory of text files
+	 * @throws IOException if unable to walk the directory
+	 */
+	private void locate(Path input) throws IOException {
+		if (Files.isDirectory(input)) {
+			try (Stream<Path> stream = Files.walk(input, FileVisitOption.FOLLOW_LINKS)) {
+				locations = stream.filter(Files::isRegularFile)
+						.filter(ProjectOracle::isText)
+						.map(Path::toString)
+						.sorted()
+						.toArray(String[]::new);
+			}
+		}
+		else {
+			locations = new String[] { input.toString() };
+		}
+
+		counts = new int[locations.length];
+	}
+
+	/**
+	 * Checks if the file has a text extension, ignoring case.
+	 *
+	 * @param path the file
+	 * @return true if the file ends in .txt or .text
+	 */
+	private static boolean isText(Path path) {
+		String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+		return name.endsWith(".txt") || name.endsWith(".text");
+	}
+
+	/**
+	 * Reads the query file into unique sorted queries, and remembers which
+	 * queries contain each query stem.
+	 *
+	 * @param query the query file
+	 * @throws IOException if unable to read the query file
+	 */
+	private void queries(Path query) throws IOException {
+		TreeSet<String> unique = new TreeSet<>();
+
+		try (BufferedReader reader = Files.newBufferedReader(query, UTF_8)) {
+			String line;
+
+			while ((line = reader.readLine()) != null) {
+				String joined = String.join(" ", new TreeSet<>(Arrays.asList(parse(line))));
+
+				if (!joined.isEmpty()) {
+					unique.add(joined);
+				}
+			}
+		}
+
+		queries = unique.toArray(String[]::new);
+		Map<String, List<Integer>> found = new HashMap<>();
+
+		for (int id = 0; id < queries.length; id++) {
+			for (String stem : queries[id].split(" ")) {
+				found.computeIfAbsent(stem, key -> new ArrayList<>()).add(id);
+			}
+		}
+
+		stems = new HashMap<>();
+
+		for (var entry : found.entrySet()) {
+			stems.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+		}
+	}
+
+	/**
+	 * Reads every location in sorted order, counting the words and writing every
+	 * word position to sorted runs.
+	 *
+	 * @return the sorted runs in the order they were written
+	 * @throws IOException if unable to read or write any files
+	 */
+	private List<Path> postings() throws IOException {
+		List<Path> runs = new ArrayList<>();
+		Map<String, Postings> buffered = new HashMap<>();
+		int size = 0;
+
+		for (int id = 0; id < locations.length; id++) {
+			try (BufferedReader reader = Files.newBufferedReader(Path.of(locations[id]), UTF_8)) {
+				String line;
+				int position = 0;
+
+				while ((line = reader.readLine()) != null) {
+					for (String stem : parse(line)) {
+						buffered.computeIfAbsent(stem, key -> new Postings()).add(id, ++position);
+
+						if (++size >= buffer) {
+							runs.add(spill(buffered));
+							buffered.clear();
+							size = 0;
+						}
+					}
+				}
+
+				counts[id] = position;
+			}
+		}
+
+		if (!buffered.isEmpty()) {
+			runs.add(spill(buffered));
+		}
+
+		return runs;
+	}
+
+	/**
+	 * Writes the buffered positions to a new run sorted by stem. Since locations
+	 * are read in sorted order, the positions of each stem are already sorted by
+	 * location and then position.
+	 *
+	 * @param buffered the buffered positions by stem
+	 * @return the sorted run
+	 * @throws IOException if unable to write the run
+	 */
+	private Path spill(Map<String, Postings> buffered) throws IOException {
+		Path run = temp.resolve("postings-" + written++);
+		String[] sorted = buffered.keySet().stream().sorted().toArray(String[]::new);
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+			for (String stem : sorted) {
+				Postings postings = buffered.get(stem);
+				out.writeBoolean(true);
+				writeString(out, stem);
+				out.writeInt(postings.count);
+				out.write(postings.bytes, 0, postings.size);
+			}
+
+			out.writeBoolean(false);
+		}
+
+		return run;
+	}
+
+	/**
+	 * Merges groups of at most {@link #FAN_IN} consecutive runs into single runs
+	 * until there are at most that many runs left. Consecutive runs are merged
+	 * so the run order, and with it the order of the positions of each stem, is
+	 * kept.
+	 *
+	 * @param runs the sorted runs in the order they were written
+	 * @return at most {@link #FAN_IN} sorted runs in the same order
+	 * @throws IOException if unable to read or write any runs
+	 */
+	private List<Path> compact(List<Path> runs) throws IOException {
+		List<Path> remaining = runs;
+
+		while (remaining.size() > FAN_IN) {
+			List<Path> merged = new ArrayList<>();
+
+			for (int i = 0; i < remaining.size(); i += FAN_IN) {
+				List<Path> group = remaining.subList(i, Math.min(i + FAN_IN, remaining.size()));
+				merged.add(group.size() == 1 ? group.get(0) : combine(group));
+			}
+
+			remaining = merged;
+		}
+
+		return remaining;
+	}
+
+	/**
+	 * Merges the sorted runs into a single sorted run, and deletes them.
+	 *
+	 * @param group the sorted runs in the order they were written
+	 * @return the merged run
+	 * @throws IOException if unable to read or write any runs
+	 */
+	private Path combine(List<Path> group) throws IOException {
+		Path run = temp.resolve("postings-" + written++);
+		PriorityQueue<PostingsRun> queue = new PriorityQueue<>(PostingsRun.ORDER);
+		List<PostingsRun> open = new ArrayList<>();
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+			for (int i = 0; i < group.size(); i++) {
+				PostingsRun next = new PostingsRun(group.get(i), i);
+				open.add(next);
+
+				if (next.next()) {
+					queue.add(next);
+				}
+			}
+
+			List<PostingsRun> matching = new ArrayList<>();
+
+			while (!queue.isEmpty()) {
+				String stem = queue.peek().stem;
+				int count = 0;
+
+				while (!queue.isEmpty() && queue.peek().stem.equals(stem)) {
+					PostingsRun next = queue.poll();
+					count += next.remaining;
+					matching.add(next);
+				}
+
+				out.writeBoolean(true);
+				writeString(out, stem);
+				out.writeInt(count);
+
+				// encoded the same way as Postings, relative to the pair before
+				int location = 0;
+				int position = 0;
+				boolean first = true;
+
+				for (PostingsRun next : matching) {
+					while (next.remaining > 0) {
+						next.advance();
+
+						if (!first && next.location == location) {
+							writeVarint(out, (next.position - position) << 1);
+						}
+						else {
+							writeVarint(out, next.position << 1 | 1);
+							writeVarint(out, next.location - location);
+							location = next.location;
+						}
+
+						position = next.position;
+						first = false;
+					}
+
+					if (next.next()) {
+						queue.add(next);
+					}
+				}
+
+				matching.clear();
+			}
+
+			out.writeBoolean(false);
+		}
+		finally {
+			for (PostingsRun next : open) {
+				next.close();
+			}
+		}
+
+		for (Path path : group) {
+			Files.deleteIfExists(path);
+		}
+
+		return run;
+	}
+
+	/**
+	 * Merges the sorted runs one stem at a time, streaming the inverted index and
+	 * collecting the search hits of every stem.
+	 *
+	 * @param runs the sorted runs in the order they were written
+	 * @param index the inverted index output (or null)
+	 * @param exact the exact search hits (or null)
+	 * @param partial the partial search hits (or null)
+	 * @throws IOException if unable to read or write any files
+	 */
+	private void merge(List<Path> runs, Writer index, Hits exact, Hits partial) throws IOException {
+		List<Path> compacted = compact(runs);
+		PriorityQueue<PostingsRun> queue = new PriorityQueue<>(PostingsRun.ORDER);
+		List<PostingsRun> open = new ArrayList<>();
+
+		try {
+			for (int i = 0; i < compacted.size(); i++) {
+				PostingsRun run = new PostingsRun(compacted.get(i), i);
+				open.add(run);
+
+				if (run.next()) {
+					queue.add(run);
+				}
+			}
+
+			write(index, "{");
+			boolean firstStem = true;
+			List<PostingsRun> matching = new ArrayList<>();
+
+			while (!queue.isEmpty()) {
+				String stem = queue.peek().stem;
+
+				while (!queue.isEmpty() && queue.peek().stem.equals(stem)) {
+					matching.add(queue.poll());
+				}
+
+				write(index, firstStem ? "\n  \"" : ",\n  \"", stem, "\": {");
+				firstStem = false;
+
+				int location = -1;
+				int count = 0;
+
+				for (PostingsRun run : matching) {
+					while (run.remaining > 0) {
+						run.advance();
+						int id = run.location;
+						int position = run.position;
+
+						if (id != location) {
+							if (location >= 0) {
+								write(index, "\n    ]");
+								hit(stem, location, count, exact, partial);
+							}
+
+							write(index, location < 0 ? "\n    \"" : ",\n    \"", locations[id], "\": [\n      ");
+							location = id;
+							count = 0;
+						}
+						else {
+							write(index, ",\n      ");
+						}
+
+						write(index, Integer.toString(position));
+						count++;
+					}
+
+					if (run.next()) {
+						queue.add(run);
+					}
+				}
+
+				write(index, "\n    ]\n  }");
+				hit(stem, location, count, exact, partial);
+				matching.clear();
+			}
+
+			write(index, "\n}");
+		}
+		finally {
+			for (PostingsRun run : open) {
+				run.close();
+			}
+		}
+	}
+
+	/**
+	 * Adds the search hits of a stem in a location, once for every query with a
+	 * matching query stem.
+	 *
+	 * @param stem the stem from the index
+	 * @param location the location id
+	 * @param count the number of times the stem appears in the location
+	 * @param exact the exact search hits (or null)
+	 * @param partial the partial search hits (or null)
+	 * @throws IOException if unable to write a sorted run
+	 */
+	private void hit(String stem, int location, int count, Hits exact, Hits partial) throws IOException {
+		if (exact != null) {
+			int[] ids = stems.get(stem);
+
+			if (ids != null) {
+				for (int id : ids) {
+					exact.add(id, location, count);
+				}
+			}
+		}
+
+		if (partial != null) {
+			for (int length = 1; length <= stem.length(); length++) {
+				int[] ids = stems.get(stem.substring(0, length));
+
+				if (ids != null) {
+					for (int id : ids) {
+						partial.add(id, location, count);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the word counts of every location with words.
+	 *
+	 * @param output the output path
+	 * @throws IOException if unable to write the file
+	 */
+	private void writeCounts(Path output) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(output, UTF_8)) {
+			writer.write("{");
+			boolean first = true;
+
+			for (int id = 0; id < locations.length; id++) {
+				if (counts[id] > 0) {
+					write(writer, first ? "\n  \"" : ",\n  \"", locations[id], "\": ", Integer.toString(counts[id]));
+					first = false;
+				}
+			}
+
+			writer.write("\n}");
+		}
+	}
+
+	/**
+	 * Merges the sorted search hits and writes the results of every query, one
+	 * query at a time.
+	 *
+	 * @param hits the search hits
+	 * @param output the output path
+	 * @throws IOException if unable to read or write any files
+	 */
+	private void writeResults(Hits hits, Path output) throws IOException {
+		Comparator<Hit> ranking = Comparator
+				.comparingDouble((Hit hit) -> (double) hit.count() / counts[hit.location()]).reversed()
+				.thenComparing(Comparator.comparingLong(Hit::count).reversed())
+				.thenComparing(hit -> locations[hit.location()], String::compareToIgnoreCase);
+
+		try (HitsMerge merge = hits.merge(); Writer writer = Files.newBufferedWriter(output, UTF_8)) {
+			writer.write("{");
+			List<Hit> results = new ArrayList<>();
+
+			for (int id = 0; id < queries.length; id++) {
+				while (merge.peek() != null && merge.peek().query() == id) {
+					results.add(merge.next());
+				}
+
+				results.sort(ranking);
+				write(writer, id == 0 ? "\n  \"" : ",\n  \"", queries[id], "\": [");
+
+				for (int i = 0; i < results.size(); i++) {
+					Hit hit = results.get(i);
+					double score = (double) hit.count() / counts[hit.location()];
+
+					write(writer, i == 0 ? "\n    {" : ",\n    {",
+							"\n      \"count\": ", Long.toString(hit.count()),
+							",\n      \"score\": ", String.format(Locale.ROOT, "%.8f", score),
+							",\n      \"where\": \"", locations[hit.location()], "\"\n    }");
+				}
+
+				writer.write("\n  ]");
+				results.clear();
+			}
+
+			writer.write("\n}");
+		}
+	}
+
+	/**
+	 * Writes the text to the writer, unless the writer is null.
+	 *
+	 * @param writer the writer (or null)
+	 * @param text the text to write
+	 * @throws IOException if unable to write
+	 */
+	private static void write(Writer writer, String... text) throws IOException {
+		if (writer != null) {
+			for (String part : text) {
+				writer.write(part);
+			}
+		}
+	}
+
+	/**
+	 * Writes the string as its length in UTF-8 bytes followed by the bytes, since
+	 * {@link DataOutputStream#writeUTF(String)} cannot write very long words.
+	 *
+	 * @param out the output stream
+	 * @param text the string
+	 * @throws IOException if unable to write
+	 */
+	private static void writeString(DataOutputStream out, String text) throws IOException {
+		byte[] bytes = text.getBytes(UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+	 *
+	 * @param in the input stream
+	 * @return the string
+	 * @throws IOException if unable to read
+	 */
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, UTF_8);
+	}
+
+	/**
+	 * Opens a buffered data input stream for a sorted run.
+	 *
+	 * @param run the sorted run
+	 * @return the input stream
+	 * @throws IOException if unable to open the run
+	 */
+	private static DataInputStream open(Path run) throws IOException {
+		return new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+	}
+
+	/**
+	 * Writes a non-negative int the same way as {@link Postings}.
+	 *
+	 * @param out the output stream
+	 * @param value the int to write
+	 * @throws IOException if unable to write
+	 */
+	private static void writeVarint(DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte(value & 0x7F | 0x80);
+			value >>>= 7;
+		}
+
+		out.writeByte(value);
+	}
+
+	/**
+	 * Reads a variable-length int written by {@link Postings}.
+	 *
+	 * @param in the input stream
+	 * @return the int
+	 * @throws IOException if unable to read
+	 */
+	private static int readVarint(DataInputStream in) throws IOException {
+		int value = 0;
+		int shift = 0;
+		int b;
+
+		do {
+			b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		}
+		while ((b & 0x80) != 0);
+
+		return value;
+	}
+
+	/**
+	 * The location id and position pairs of a single stem, stored as a growable
+	 * array of delta and varint encoded bytes. Pairs must be added in sorted
+	 * order, which is always the case since locations are read in sorted order.
+	 *
+	 * Every pair starts with a varint of the position delta shifted left by one,
+	 * with the lowest bit set if the location changed. A changed location is
+	 * followed by a varint of the location delta, and the position is then
+	 * stored as is instead of as a delta. Most pairs are in the same location as
+	 * the one before, and take a single byte if the words are close together.
+	 *
+	 * Unlike interning or parallel building, this encoding is what keeps the
+	 * oracle usable on {@link ProjectPath#GENERATED_LARGE}: the input text has
+	 * about 0.16 positions per byte, so a 20 GB corpus spills roughly 3.4 billion
+	 * positions. That is about 6 GB of sorted runs at under 2 bytes per position,
+	 * instead of about 27 GB as pairs of ints.
+	 */
+	private static class Postings {
+		/** The encoded location id and position pairs. */
+		private byte[] bytes = new byte[8];
+
+		/** The number of bytes used. */
+		private int size = 0;
+
+		/** The number of pairs. */
+		private int count = 0;
+
+		/** The last location id added. */
+		private int location = 0;
+
+		/** The last position added. */
+		private int position = 0;
+
+		/**
+		 * Adds a location id and position pair after all of the pairs added so far.
+		 *
+		 * @param location the location id
+		 * @param position the position
+		 * @throws IllegalArgumentException if the pair is out of order
+		 */
+		private void add(int location, int position) {
+			if (size + 10 > bytes.length) {
+				bytes = Arrays.copyOf(bytes, bytes.length * 2);
+			}
+
+			if (count > 0 && location == this.location && position > this.position) {
+				// fast path for another position in the same location
+				write((position - this.position) << 1);
+			}
+			else if (count == 0 || location > this.location) {
+				write(position << 1 | 1);
+				write(location - this.location);
+				this.location = location;
+			}
+			else {
+				throw new IllegalArgumentException("Out of order: " + location + ":" + position);
+			}
+
+			this.position = position;
+			count++;
+		}
+
+		/**
+		 * Writes a non-negative int using 7 bits per byte, with the highest bit set
+		 * on every byte except for the last.
+		 *
+		 * @param value the int to write
+		 */
+		private void write(int value) {
+			while ((value & ~0x7F) != 0) {
+				bytes[size++] = (byte) (value & 0x7F | 0x80);
+				value >>>= 7;
+			}
+
+			bytes[size++] = (byte) value;
+		}
+	}
+
+	/**
+	 * Reads a sorted run of positions one stem at a time. The positions of the
+	 * current stem must be read from the input stream before moving on.
+	 */
+	private static class PostingsRun implements Closeable {
+		/** Sorts runs by current stem, with ties broken by run order to keep the positions of a stem sorted. */
+		private static final Comparator<PostingsRun> ORDER = Comparator
+				.comparing((PostingsRun run) -> run.stem).thenComparingInt(run -> run.order);
+
+		/** The input stream of the run. */
+		private final DataInputStream in;
+
+		/** The order the run was written in. */
+		private final int order;
+
+		/** The current stem. */
+		private String stem;
+
+		/** The number of pairs of the current stem left to read. */
+		private int remaining;
+
+		/** The location id of the last pair read. */
+		private int location;
+
+		/** The position of the last pair read. */
+		private int position;
+
+		/**
+		 * Opens the sorted run.
+		 *
+		 * @param run the sorted run
+		 * @param order the order the run was written in
+		 * @throws IOException if unable to open the run
+		 */
+		private PostingsRun(Path run, int order) throws IOException {
+			this.in = open(run);
+			this.order = order;
+			this.stem = null;
+			this.remaining = 0;
+		}
+
+		/**
+		 * Moves to the next stem in the run.
+		 *
+		 * @return true if there is another stem
+		 * @throws IOException if unable to read the run
+		 */
+		private boolean next() throws IOException {
+			if (!in.readBoolean()) {
+				return false;
+			}
+
+			stem = readString(in);
+			remaining = in.readInt();
+			location = 0;
+			position = 0;
+			return true;
+		}
+
+		/**
+		 * Reads the next location id and position pair of the current stem.
+		 *
+		 * @throws IOException if unable to read the run
+		 *
+		 * @see Postings
+		 */
+		private void advance() throws IOException {
+			int header = readVarint(in);
+
+			if ((header & 1) != 0) {
+				location += readVarint(in);
+				position = header >>> 1;
+			}
+			else {
+				position += header >>> 1;
+			}
+
+			remaining--;
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+
+	/**
+	 * The number of matches in a location for a query.
+	 *
+	 * @param query the query id
+	 * @param location the location id
+	 * @param count the number of matches
+	 */
+	private static record Hit(int query, int location, long count) {
+		/** Sorts hits by query id and then by location id. */
+		private static final Comparator<Hit> ORDER = Comparator.comparingInt(Hit::query).thenComparingInt(Hit::location);
+	}
+
+	/**
+	 * Search hits that are written to sorted runs whenever too many are buffered.
+	 */
+	private class Hits {
+		/** The buffered hits. */
+		private final List<Hit> buffered = new ArrayList<>();
+
+		/** The sorted runs written so far. */
+		private final List<Path> runs = new ArrayList<>();
+
+		/**
+		 * Adds a search hit.
+		 *
+		 * @param query the query id
+		 * @param location the location id
+		 * @param count the number of matches
+		 * @throws IOException if unable to write a sorted run
+		 */
+		private void add(int query, int location, long count) throws IOException {
+			buffered.add(new Hit(query, location, count));
+
+			if (buffered.size() >= buffer) {
+				spill();
+			}
+		}
+
+		/**
+		 * Writes the buffered hits to a new run sorted by query and location,
+		 * combining the hits of the same query and location.
+		 *
+		 * @throws IOException if unable to write the run
+		 */
+		private void spill() throws IOException {
+			buffered.sort(Hit.ORDER);
+			Path run = temp.resolve("hits-" + written++);
+
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+				int i = 0;
+
+				while (i < buffered.size()) {
+					Hit first = buffered.get(i);
+					long count = 0;
+
+					while (i < buffered.size() && Hit.ORDER.compare(buffered.get(i), first) == 0) {
+						count += buffered.get(i++).count();
+					}
+
+					out.writeBoolean(true);
+					out.writeInt(first.query());
+					out.writeInt(first.location());
+					out.writeLong(count);
+				}
+
+				out.writeBoolean(false);
+			}
+
+			runs.add(run);
+			buffered.clear();
+		}
+
+		/**
+		 * Returns the hits of every run merged in order of query and location.
+		 *
+		 * @return the merged hits
+		 * @throws IOException if unable to read the runs
+		 */
+		private HitsMerge merge() throws IOException {
+			if (!buffered.isEmpty()) {
+				spill();
+			}
+
+			List<Path> remaining = runs;
+
+			// merge in several passes so at most FAN_IN runs are open at once
+			while (remaining.size() > FAN_IN) {
+				List<Path> merged = new ArrayList<>();
+
+				for (int i = 0; i < remaining.size(); i += FAN_IN) {
+					List<Path> group = remaining.subList(i, Math.min(i + FAN_IN, remaining.size()));
+					merged.add(group.size() == 1 ? group.get(0) : combine(group));
+				}
+
+				remaining = merged;
+			}
+
+			return new HitsMerge(remaining);
+		}
+
+		/**
+		 * Merges the sorted runs into a single sorted run, combining the hits of
+		 * the same query and location, and deletes them.
+		 *
+		 * @param group the sorted runs
+		 * @return the merged run
+		 * @throws IOException if unable to read or write any runs
+		 */
+		private Path combine(List<Path> group) throws IOException {
+			Path run = temp.resolve("hits-" + written++);
+
+			try (
+					HitsMerge merge = new HitsMerge(group);
+					DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)));
+			) {
+				for (Hit hit = merge.next(); hit != null; hit = merge.next()) {
+					out.writeBoolean(true);
+					out.writeInt(hit.query());
+					out.writeInt(hit.location());
+					out.writeLong(hit.count());
+				}
+
+				out.writeBoolean(false);
+			}
+
+			for (Path path : group) {
+				Files.deleteIfExists(path);
+			}
+
+			return run;
+		}
+	}
+
+	/**
+	 * Merges sorted runs of search hits, combining the hits of the same query
+	 * and location from different runs.
+	 */
+	private static class HitsMerge implements Closeable {
+		/** The open runs with their current hit. */
+		private final PriorityQueue<HitsRun> queue;
+
+		/** Every open run. */
+		private final List<HitsRun> open;
+
+		/** The next combined hit, or null if there are no more. */
+		private Hit next;
+
+		/**
+		 * Opens the sorted runs.
+		 *
+		 * @param runs the sorted runs
+		 * @throws IOException if unable to read the runs
+		 */
+		private HitsMerge(List<Path> runs) throws IOException {
+			this.queue = new PriorityQueue<>(Comparator.comparing((HitsRun run) -> run.hit, Hit.ORDER));
+			this.open = new ArrayList<>();
+
+			for (Path path : runs) {
+				HitsRun run = new HitsRun(open(path));
+				open.add(run);
+
+				if (run.next()) {
+					queue.add(run);
+				}
+			}
+
+			this.next = combine();
+		}
+
+		/**
+		 * Returns the next combined hit without removing it.
+		 *
+		 * @return the next hit or null if there are no more
+		 */
+		private Hit peek() {
+			return next;
+		}
+
+		/**
+		 * Returns and removes the next combined hit.
+		 *
+		 * @return the next hit or null if there are no more
+		 * @throws IOException if unable to read the runs
+		 */
+		private Hit next() throws IOException {
+			Hit current = next;
+			next = combine();
+			return current;
+		}
+
+		/**
+		 * Combines the hits with the smallest query and location from every run.
+		 *
+		 * @return the combined hit or null if there are no more
+		 * @throws IOException if unable to read the runs
+		 */
+		private Hit combine() throws IOException {
+			if (queue.isEmpty()) {
+				return null;
+			}
+
+			Hit first = queue.peek().hit;
+			long count = 0;
+
+			while (!queue.isEmpty() && Hit.ORDER.compare(queue.peek().hit, first) == 0) {
+				HitsRun run = queue.poll();
+				count += run.hit.count();
+
+				if (run.next()) {
+					queue.add(run);
+				}
+			}
+
+			return new Hit(first.query(), first.location(), count);
+		}
+
+		@Override
+		public void close() throws IOException {
+			for (HitsRun run : open) {
+				run.in.close();
+			}
+		}
+	}
+
+	/**
+	 * Reads a sorted run of search hits one hit at a time.
+	 */
+	private static class HitsRun {
+		/** The input stream of the run. */
+		private final DataInputStream in;
+
+		/** The current hit. */
+		private Hit hit;
+
+		/**
+		 * Reads from the input stream of a sorted run.
+		 *
+		 * @param in the input stream
+		 */
+		private HitsRun(DataInputStream in) {
+			this.in = in;
+			this.hit = null;
+		}
+
+		/**
+		 * Moves to the next hit in the run.
+		 *
+		 * @return true if there is another hit
+		 * @throws IOException if unable to read the run
+		 */
+		private boolean next() throws IOException {
+			if (!in.readBoolean()) {
+				return false;
+			}
+
+			hit = new Hit(in.readInt(), in.readInt(), in.readLong());
+			return true;
+		}
+	}
+
+	/**
+	 * Generates the expected output for the same arguments as the driver.
+	 *
+	 * @param args the driver arguments
+	 * @throws IOException if unable to read or write any files
+	 */
+	public static void main(String[] args) throws IOException {
+		long start = System.nanoTime();
+		generate(args);
+		System.out.printf("Generated expected output in %.3f seconds%n", (System.nanoTime() - start) / 1e9);
+	}
+}
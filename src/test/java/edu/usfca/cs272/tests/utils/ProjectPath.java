@@ -14,6 +14,9 @@ public enum ProjectPath {
 	/** Path to the expected output files (based on type of slash) */
 	EXPECTED(File.separator.equals("/") ? "expected-nix" : "expected-win"),
 
+	/** Path to the stored benchmark baselines */
+	BASELINE("baseline"),
+
 	/** Path to the input files */
 	INPUT("input"),
 
@@ -83,6 +86,18 @@ public enum ProjectPath {
 	/** Great Expectations by Charles Dickens */
 	GUTEN_GREAT("input", "text", "guten", "1400-0.txt"),
 
+	/** Path to the generated corpora (see {@link ProjectCorpus}) */
+	GENERATED("generated"),
+
+	/** Small generated corpus (64 MB by default) */
+	GENERATED_SMALL("generated", "small"),
+
+	/** Medium generated corpus (1 GB by default) */
+	GENERATED_MEDIUM("generated", "medium"),
+
+	/** Large generated corpus (20 GB by default) */
+	GENERATED_LARGE("generated", "large"),
+
 	/** Path to the input query files */
 	QUERY("input", "query"),
 
@@ -110,6 +125,9 @@ public enum ProjectPath {
 	/** The name to use in output files */
 	public final String id;
 
+	/** The isolated actual output directory of the test running on this thread. */
+	private static final ThreadLocal<Path> isolated = new ThreadLocal<>();
+
 	/**
 	 * Initializes one of the paths used by the search engine project.
 	 *
@@ -122,13 +140,34 @@ public enum ProjectPath {
 	}
 
 	/**
-	 * Wrapper for {@link Path#resolve(String)}.
+	 * Wrapper for {@link Path#resolve(String)}. If the test running on this
+	 * thread has an isolated actual output directory, actual output paths are
+	 * resolved against that directory instead.
 	 *
 	 * @param other the path string to resolve against this path
 	 * @return the resulting path
+	 *
+	 * @see #isolate(Path)
 	 */
 	public Path resolve(String other) {
-		return this.path.resolve(other);
+		Path directory = this == ACTUAL ? isolated.get() : null;
+		return (directory != null ? directory : this.path).resolve(other);
+	}
+
+	/**
+	 * Sets the isolated actual output directory for the test running on this
+	 * thread, so that tests running in parallel never share output files.
+	 *
+	 * @param directory the directory within {@link #ACTUAL}, or null to stop
+	 *   isolating output
+	 */
+	public static void isolate(Path directory) {
+		if (directory == null) {
+			isolated.remove();
+		}
+		else {
+			isolated.set(directory);
+		}
 	}
 
 	/**
@@ -0,0 +1,448 @@
+package edu.usfca.cs272.tests.utils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Captures Java Flight Recorder (JFR) recordings around benchmarks, and
+ * summarizes the hottest sampled methods, the most contended monitors, and the
+ * largest allocation sites as markdown. The recordings are kept so they can be
+ * opened in JDK Mission Control later. Recording is only enabled by default
+ * with the benchmark profile, so the graded timing tests are not slowed down by
+ * the recording, and can be turned on elsewhere with {@code -Dbench.jfr=true}.
+ * Also used to track exactly which worker threads run concurrently, and how
+ * long crawl workers spend per page.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+public class ProjectRecordings {
+	/** Whether to record benchmarks. */
+	public static final boolean ENABLED = Boolean.parseBoolean(ProjectTests.setting("bench.jfr", "false"));
+
+	/** The JFR configuration to use (either "default" or "profile"). */
+	public static final String CONFIGURATION = ProjectTests.setting("bench.jfr.settings", "profile");
+
+	/** The number of rows to include in each summary table. */
+	public static final int TOP = ProjectTests.setting("bench.jfr.top", 10);
+
+	/**
+	 * Runs the action while recording, and dumps the recording to the provided
+	 * path afterwards. Only runs the action if recording is disabled.
+	 *
+	 * @param <T> the type of result
+	 * @param path the path to dump the recording
+	 * @param action the action to record
+	 * @return the result of the action
+	 * @throws IOException if unable to start or dump the recording
+	 */
+	public static <T> T record(Path path, Supplier<T> action) throws IOException {
+		if (!ENABLED) {
+			return action.get();
+		}
+
+		Configuration configuration;
+
+		try {
+			configuration = Configuration.getConfiguration(CONFIGURATION);
+		}
+		catch (ParseException e) {
+			throw new IOException("Unable to parse JFR configuration: " + CONFIGURATION, e);
+		}
+
+		try (Recording recording = new Recording(configuration)) {
+			recording.setName(path.getFileName().toString());
+			recording.start();
+
+			try {
+				return action.get();
+			}
+			finally {
+				recording.stop();
+				recording.dump(path);
+			}
+		}
+	}
+
+	/**
+	 * Returns the recording file name for a labeled run set of a benchmark.
+	 *
+	 * @param name the benchmark name (e.g. "bench-build-multi")
+	 * @param label the label of the run set (e.g. "1 Worker")
+	 * @return the recording path in the actual output directory
+	 */
+	public static Path path(String name, String label) {
+		String suffix = label.toLowerCase().replaceAll("[^a-z0-9]+", "-").replaceAll("^-|-$", "");
+		return ProjectPath.ACTUAL.resolve(name + "-" + suffix + ".jfr");
+	}
+
+	/**
+	 * Summarizes the recording as markdown, including the top sampled methods,
+	 * the most contended monitors, and the largest allocation sites. Returns an
+	 * empty string if recording is disabled.
+	 *
+	 * @param label the label of the run set
+	 * @param path the path of the recording
+	 * @return the markdown summary
+	 * @throws IOException if unable to read the recording
+	 */
+	public static String summary(String label, Path path) throws IOException {
+		if (!ENABLED) {
+			return "";
+		}
+
+		Map<String, Long> samples = new HashMap<>();
+		Map<String, Long> contended = new HashMap<>();
+		Map<String, Long> blocked = new HashMap<>();
+		Map<String, Long> allocated = new HashMap<>();
+
+		try (RecordingFile recording = new RecordingFile(path)) {
+			while (recording.hasMoreEvents()) {
+				RecordedEvent event = recording.readEvent();
+
+				switch (event.getEventType().getName()) {
+					case "jdk.ExecutionSample" -> samples.merge(frame(event), 1L, Long::sum);
+					case "jdk.JavaMonitorEnter" -> {
+						RecordedClass monitor = event.getClass("monitorClass");
+						String key = (monitor == null ? "unknown" : monitor.getName()) + " in " + frame(event);
+						contended.merge(key, 1L, Long::sum);
+						blocked.merge(key, event.getDuration().toNanos(), Long::sum);
+					}
+					case "jdk.ObjectAllocationSample" -> {
+						RecordedClass type = event.getClass("objectClass");
+						String key = (type == null ? "unknown" : type.getName()) + " in " + frame(event);
+						allocated.merge(key, event.getLong("weight"), Long::sum);
+					}
+					default -> {
+						// ignore all other events
+					}
+				}
+			}
+		}
+
+		long total = samples.values().stream().mapToLong(Long::longValue).sum();
+
+		StringWriter writer = new StringWriter();
+		PrintWriter out = new PrintWriter(writer);
+
+		out.printf("### Profile - %s%n%n", label);
+		out.printf("Recorded to `%s` with %d execution samples.%n%n", path.getFileName(), total);
+
+		out.printf("| Samples | Percent | Top Method |%n");
+		out.printf("|--------:|--------:|:-----------|%n");
+
+		for (var entry : top(samples)) {
+			out.printf("| %7d | %6.2f%% | `%s` |%n", entry.getValue(),
+					100.0 * entry.getValue() / Math.max(total, 1), entry.getKey());
+		}
+
+		out.printf("%n| Blocked | Total (ms) | Contended Monitor |%n");
+		out.printf("|--------:|-----------:|:------------------|%n");
+
+		for (var entry : top(blocked)) {
+			out.printf("| %7d | %10.2f | `%s` |%n", contended.get(entry.getKey()),
+					entry.getValue() / (double) Duration.ofMillis(1).toNanos(), entry.getKey());
+		}
+
+		out.printf("%n| Sampled (MB) | Allocation Site |%n");
+		out.printf("|-------------:|:----------------|%n");
+
+		for (var entry : top(allocated)) {
+			out.printf("| %12.2f | `%s` |%n", ProjectBenchmarks.megabytes(entry.getValue()), entry.getKey());
+		}
+
+		out.println();
+		out.flush();
+		return writer.toString();
+	}
+
+	/**
+	 * Runs the action while recording which threads it starts (directly or
+	 * indirectly) and which of those threads are sampled running at the same
+	 * time. Unlike polling for thread names, this catches every worker thread
+	 * no matter how short-lived, including virtual threads.
+	 *
+	 * @param action the action to run in a new thread
+	 * @param period the sampling period
+	 * @return the workers and their concurrency
+	 * @throws IOException if unable to start or read the recording
+	 * @throws InterruptedException if interrupted while waiting for the action
+	 */
+	public static Concurrency concurrency(Runnable action, Duration period) throws IOException, InterruptedException {
+		Path path = Files.createTempFile("threads-", ".jfr");
+		Thread driver = new Thread(action);
+		driver.setPriority(Thread.MAX_PRIORITY);
+
+		try {
+			Instant start;
+			Instant end;
+
+			try (Recording recording = new Recording()) {
+				recording.enable("jdk.ThreadStart").withoutStackTrace();
+				recording.enable("jdk.ThreadEnd").withoutStackTrace();
+				recording.enable("jdk.VirtualThreadStart").withoutStackTrace();
+				recording.enable("jdk.VirtualThreadEnd").withoutStackTrace();
+				recording.enable("jdk.ExecutionSample").withPeriod(period).withoutStackTrace();
+				recording.start();
+
+				start = Instant.now();
+				driver.start();
+				driver.join();
+				end = Instant.now();
+
+				recording.stop();
+				recording.dump(path);
+			}
+
+			return concurrency(path, driver.threadId(), start, end, period);
+		}
+		finally {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	/**
+	 * Finds the worker threads started by the root thread (directly or
+	 * indirectly) and the number of those workers sampled running within each
+	 * sampling period of the recording.
+	 *
+	 * @param path the path of the recording
+	 * @param root the id of the thread running the action
+	 * @param start when the action started
+	 * @param end when the action finished
+	 * @param period the sampling period
+	 * @return the workers and their concurrency
+	 * @throws IOException if unable to read the recording
+	 */
+	public static Concurrency concurrency(Path path, long root, Instant start, Instant end, Duration period) throws IOException {
+		Map<Long, Long> parents = new HashMap<>();
+		Map<Long, String> names = new HashMap<>();
+		Set<Long> virtual = new HashSet<>();
+		List<RecordedEvent> samples = new ArrayList<>();
+
+		try (RecordingFile recording = new RecordingFile(path)) {
+			while (recording.hasMoreEvents()) {
+				RecordedEvent event = recording.readEvent();
+
+				switch (event.getEventType().getName()) {
+					case "jdk.ThreadStart" -> {
+						RecordedThread thread = event.getThread("thread");
+						RecordedThread parent = event.getThread("parentThread");
+
+						if (thread != null) {
+							parents.put(thread.getJavaThreadId(), parent == null ? -1 : parent.getJavaThreadId());
+							names.put(thread.getJavaThreadId(), thread.getJavaName());
+						}
+					}
+					case "jdk.VirtualThreadStart" -> {
+						long id = event.getLong("javaThreadId");
+						virtual.add(id);
+						names.putIfAbsent(id, "virtual-" + id);
+					}
+					case "jdk.ExecutionSample" -> samples.add(event);
+					default -> {
+						// ignore all other events
+					}
+				}
+			}
+		}
+
+		// follow the thread tree down from the root thread
+		Set<Long> descendants = new HashSet<>(Set.of(root));
+		boolean changed = true;
+
+		while (changed) {
+			changed = false;
+
+			for (var entry : parents.entrySet()) {
+				if (descendants.contains(entry.getValue())) {
+					changed |= descendants.add(entry.getKey());
+				}
+			}
+		}
+
+		descendants.addAll(virtual); // virtual thread events do not include a parent
+		descendants.remove(root);
+
+		// try to figure out which ones are worker threads
+		Map<Long, String> workers = new TreeMap<>();
+
+		for (long id : descendants) {
+			String name = names.getOrDefault(id, "thread-" + id);
+
+			if (!name.startsWith("junit") && !name.startsWith("ForkJoinPool")) {
+				workers.put(id, name);
+			}
+		}
+
+		// count the distinct workers sampled running within each period
+		Map<Long, Set<Long>> buckets = new TreeMap<>();
+
+		for (RecordedEvent sample : samples) {
+			RecordedThread thread = sample.getThread("sampledThread");
+			Instant time = sample.getStartTime();
+
+			if (thread != null && workers.containsKey(thread.getJavaThreadId()) && !time.isBefore(start)) {
+				long bucket = Duration.between(start, time).toNanos() / period.toNanos();
+				buckets.computeIfAbsent(bucket, b -> new HashSet<>()).add(thread.getJavaThreadId());
+			}
+		}
+
+		long total = Math.max(1, Duration.between(start, end).toNanos() / period.toNanos());
+		long running = buckets.values().stream().mapToLong(Set::size).sum();
+
+		return new Concurrency(workers, buckets.size(), total,
+				running / (double) Math.max(1, buckets.size()),
+				buckets.values().stream().mapToInt(Set::size).max().orElse(0));
+	}
+
+	/**
+	 * The worker threads started by an action and how many of them were sampled
+	 * running at the same time.
+	 *
+	 * @param workers the worker thread ids and names
+	 * @param active the number of sampling periods with at least one running worker
+	 * @param periods the total number of sampling periods while the action ran
+	 * @param average the average number of running workers over the active periods
+	 * @param peak the maximum number of running workers within a single period
+	 */
+	public static record Concurrency(Map<Long, String> workers, long active, long periods, double average, int peak) {
+		@Override
+		public String toString() {
+			return String.format("%d workers with %.2f running on average (peak %d) over %d of %d sampled periods",
+					workers.size(), average, peak, active, periods);
+		}
+	}
+
+	/**
+	 * Runs the action while recording every socket read and write to the local
+	 * port, and returns how long each thread spent per page: from sending one
+	 * request until sending its next request. That covers fetching the page,
+	 * parsing it, and queueing its links. The last page of every thread is not
+	 * included, since there is no next request to end it.
+	 *
+	 * @param action the action to run
+	 * @param port the port of the web server
+	 * @return the time per page in microseconds
+	 * @throws IOException if unable to start or read the recording
+	 */
+	public static ProjectHistogram pages(Runnable action, int port) throws IOException {
+		Path path = Files.createTempFile("sockets-", ".jfr");
+
+		try {
+			try (Recording recording = new Recording()) {
+				recording.enable("jdk.SocketRead").withThreshold(Duration.ZERO).withoutStackTrace();
+				recording.enable("jdk.SocketWrite").withThreshold(Duration.ZERO).withoutStackTrace();
+				recording.start();
+				action.run();
+				recording.stop();
+				recording.dump(path);
+			}
+
+			Map<Long, List<RecordedEvent>> threads = new HashMap<>();
+
+			try (RecordingFile recording = new RecordingFile(path)) {
+				while (recording.hasMoreEvents()) {
+					RecordedEvent event = recording.readEvent();
+					RecordedThread thread = event.getThread();
+
+					if (thread != null && event.getInt("port") == port) {
+						threads.computeIfAbsent(thread.getJavaThreadId(), id -> new ArrayList<>()).add(event);
+					}
+				}
+			}
+
+			ProjectHistogram histogram = new ProjectHistogram();
+
+			for (List<RecordedEvent> events : threads.values()) {
+				events.sort(Comparator.comparing(RecordedEvent::getStartTime));
+
+				// a request starts with the first write after reading a response
+				Instant previous = null;
+				boolean reading = true;
+
+				for (RecordedEvent event : events) {
+					boolean writing = event.getEventType().getName().equals("jdk.SocketWrite");
+
+					if (writing && reading) {
+						if (previous != null) {
+							histogram.record(Duration.between(previous, event.getStartTime()).toNanos() / 1000);
+						}
+
+						previous = event.getStartTime();
+					}
+
+					reading = !writing;
+				}
+			}
+
+			return histogram;
+		}
+		finally {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	/**
+	 * Returns the top frame of the event stack trace as a method name.
+	 *
+	 * @param event the event
+	 * @return the top method name or "unknown" if there is no stack trace
+	 */
+	private static String frame(RecordedEvent event) {
+		RecordedStackTrace trace = event.getStackTrace();
+
+		if (trace == null) {
+			return "unknown";
+		}
+
+		return trace.getFrames().stream()
+				.filter(RecordedFrame::isJavaFrame)
+				.findFirst()
+				.map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+				.orElse("unknown");
+	}
+
+	/**
+	 * Returns the entries with the largest values in decreasing order.
+	 *
+	 * @param values the values to sort
+	 * @return at most {@link #TOP} entries
+	 */
+	private static List<Entry<String, Long>> top(Map<String, Long> values) {
+		return values.entrySet().stream()
+				.sorted(Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+						.thenComparing(Entry.comparingByKey()))
+				.limit(TOP)
+				.toList();
+	}
+
+	/** Prevent instantiating this class of static methods. */
+	private ProjectRecordings() {
+	}
+}
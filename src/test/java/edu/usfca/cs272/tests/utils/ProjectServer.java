@@ -0,0 +1,495 @@
+package edu.usfca.cs272.tests.utils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.ee10.servlet.ServletContextHandler;
+import org.eclipse.jetty.ee10.servlet.ServletHolder;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * An embedded web server for crawl benchmarks, so that crawl throughput can be
+ * measured offline and reproducibly. It serves the files in a directory, such
+ * as a web site made by {@link #generate(Path, String, int, int, int, long)}.
+ * For example, the file:
+ *
+ * <pre>site/crawl.local/page-00000.html</pre>
+ *
+ * ...is served at:
+ *
+ * <pre>http://localhost:port/crawl.local/page-00000.html</pre>
+ *
+ * The optional {@value #ROUTES} file in the directory lists the responses that
+ * are not plain files, one per line as the status code, the local path, and
+ * either the redirect location or the content type:
+ *
+ * <pre>302 /crawl.local/old.html /crawl.local/page-00000.html</pre>
+ *
+ * Every response can be delayed by a fixed latency and throttled to a maximum
+ * bandwidth with the {@code crawl.latency.ms} and {@code crawl.bandwidth}
+ * settings.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+public class ProjectServer implements AutoCloseable {
+	/** The delay added to every response in milliseconds. */
+	public static final int LATENCY = ProjectTests.setting("crawl.latency.ms", 0);
+
+	/** The maximum bytes per second for every response (or 0 for unlimited). */
+	public static final int BANDWIDTH = ProjectTests.setting("crawl.bandwidth", 0);
+
+	/** The file in the served directory that lists the redirects and other statuses. */
+	public static final String ROUTES = "routes.txt";
+
+	/** The served directory. */
+	private final Path root;
+
+	/** The responses that are not plain files by local path. */
+	private final Map<String, Route> routes;
+
+	/** The delay added to every response. */
+	private final Duration latency;
+
+	/** The maximum bytes per second for every response (or 0 for unlimited). */
+	private final long bandwidth;
+
+	/** The number of requests handled. */
+	private final LongAdder requests;
+
+	/** The number of body bytes sent. */
+	private final LongAdder bytes;
+
+	/** The number of files sent with a successful status. */
+	private final LongAdder pages;
+
+	/** When the first file was fully sent (from {@link System#nanoTime()}). */
+	private final AtomicLong first;
+
+	/** The embedded server. */
+	private final Server server;
+
+	/** The connector used to find the local port. */
+	private final ServerConnector connector;
+
+	/**
+	 * A response that is not a plain file.
+	 *
+	 * @param status the status code
+	 * @param target the redirect location for redirects, or the content type
+	 *   otherwise
+	 */
+	public static record Route(int status, String target) {
+		/**
+		 * Checks if this route is a redirect.
+		 *
+		 * @return true if the status code is a redirect
+		 */
+		public boolean redirect() {
+			return status >= 300 && status < 400;
+		}
+	}
+
+	/**
+	 * Initializes a server for the directory. The server is not started until
+	 * {@link #start()} is called.
+	 *
+	 * @param root the directory to serve
+	 * @param latency the delay added to every response
+	 * @param bandwidth the maximum bytes per second for every response (or 0 for
+	 *   unlimited)
+	 * @throws IOException if unable to read the routes of the directory
+	 */
+	public ProjectServer(Path root, Duration latency, long bandwidth) throws IOException {
+		this.root = root.toAbsolutePath().normalize();
+		this.routes = routes(root);
+		this.latency = latency;
+		this.bandwidth = bandwidth;
+		this.requests = new LongAdder();
+		this.bytes = new LongAdder();
+		this.pages = new LongAdder();
+		this.first = new AtomicLong(Long.MAX_VALUE);
+
+		this.server = new Server();
+		this.connector = new ServerConnector(server);
+		connector.setHost("localhost");
+		connector.setPort(0);
+		server.addConnector(connector);
+
+		ServletContextHandler context = new ServletContextHandler();
+		context.setContextPath("/");
+		context.addServlet(new ServletHolder(new DirectoryServlet()), "/*");
+		server.setHandler(context);
+		server.setStopAtShutdown(true);
+	}
+
+	/**
+	 * Starts the server on a free local port.
+	 *
+	 * @return the base URI of the server
+	 * @throws Exception if unable to start the server
+	 */
+	public URI start() throws Exception {
+		server.start();
+		return base();
+	}
+
+	/**
+	 * Returns the base URI of the running server.
+	 *
+	 * @return the base URI
+	 */
+	public URI base() {
+		return URI.create("http://localhost:" + connector.getLocalPort() + "/");
+	}
+
+	@Override
+	public void close() throws Exception {
+		server.stop();
+	}
+
+	/**
+	 * Returns the number of requests handled so far.
+	 *
+	 * @return the number of requests
+	 */
+	public long requests() {
+		return requests.sum();
+	}
+
+	/**
+	 * Returns the number of body bytes sent so far.
+	 *
+	 * @return the number of bytes
+	 */
+	public long bytes() {
+		return bytes.sum();
+	}
+
+	/**
+	 * Returns the number of files sent with a successful status so far.
+	 *
+	 * @return the number of pages
+	 */
+	public long pages() {
+		return pages.sum();
+	}
+
+	/**
+	 * Returns when the first file was fully sent since the last reset, as
+	 * returned by {@link System#nanoTime()}.
+	 *
+	 * @return when the first file was sent, or -1 if none were sent
+	 */
+	public long first() {
+		long nanos = first.get();
+		return nanos == Long.MAX_VALUE ? -1 : nanos;
+	}
+
+	/**
+	 * Resets the request, byte, and page counters between runs.
+	 */
+	public void reset() {
+		requests.reset();
+		bytes.reset();
+		pages.reset();
+		first.set(Long.MAX_VALUE);
+	}
+
+	/**
+	 * Reads the routes file of a served directory.
+	 *
+	 * @param root the served directory
+	 * @return the routes by local path (empty if there is no routes file)
+	 * @throws IOException if unable to read the routes file
+	 */
+	public static Map<String, Route> routes(Path root) throws IOException {
+		Map<String, Route> routes = new TreeMap<>();
+		Path path = root.resolve(ROUTES);
+
+		if (Files.isReadable(path)) {
+			for (String line : Files.readAllLines(path, UTF_8)) {
+				String[] parts = line.strip().split("\\s+", 3);
+
+				if (!line.startsWith("#") && parts.length >= 2) {
+					String target = parts.length > 2 ? parts[2] : null;
+					routes.put(parts[1], new Route(Integer.parseInt(parts[0]), target));
+				}
+			}
+		}
+
+		return routes;
+	}
+
+	/**
+	 * Returns the content type for a file based on its extension, which is how
+	 * most web servers choose it as well.
+	 *
+	 * @param file the file
+	 * @return the content type
+	 */
+	public static String contentType(Path file) {
+		String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+		String extension = name.contains(".") ? name.substring(name.lastIndexOf('.') + 1) : "";
+
+		return switch (extension) {
+			case "html", "htm" -> "text/html; charset=utf-8";
+			case "txt", "text" -> "text/plain; charset=utf-8";
+			case "css" -> "text/css; charset=utf-8";
+			case "js" -> "application/javascript; charset=utf-8";
+			case "json" -> "application/json; charset=utf-8";
+			case "jpg", "jpeg" -> "image/jpeg";
+			case "png" -> "image/png";
+			case "gif" -> "image/gif";
+			case "svg" -> "image/svg+xml";
+			case "pdf" -> "application/pdf";
+			case "zip" -> "application/zip";
+			default -> "application/octet-stream";
+		};
+	}
+
+	/**
+	 * Serves the files and routes of the directory.
+	 */
+	private class DirectoryServlet extends HttpServlet {
+		/** Unused serial version. */
+		private static final long serialVersionUID = 1L;
+
+		/** Initializes the servlet. */
+		public DirectoryServlet() {
+		}
+
+		@Override
+		protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+			requests.increment();
+
+			try {
+				Thread.sleep(latency);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+
+			String path = URI.create(request.getRequestURI()).getPath();
+			Route route = routes.get(path);
+
+			if (route != null && route.redirect()) {
+				response.setStatus(route.status());
+				response.setHeader("Location", route.target());
+				return;
+			}
+
+			if (route != null && route.status() != HttpServletResponse.SC_OK) {
+				error(response, route.status());
+				return;
+			}
+
+			Path file = root.resolve(path.substring(1)).normalize();
+
+			if (!file.startsWith(root) || file.equals(root)) {
+				error(response, HttpServletResponse.SC_NOT_FOUND);
+				return;
+			}
+
+			if (Files.isDirectory(file)) {
+				if (!path.endsWith("/")) {
+					// same as most web servers, add the missing slash
+					response.setStatus(HttpServletResponse.SC_MOVED_PERMANENTLY);
+					response.setHeader("Location", request.getRequestURI() + "/");
+					return;
+				}
+
+				file = file.resolve("index.html");
+			}
+
+			if (!Files.isRegularFile(file)) {
+				error(response, HttpServletResponse.SC_NOT_FOUND);
+				return;
+			}
+
+			response.setStatus(HttpServletResponse.SC_OK);
+			response.setContentType(route != null && route.target() != null ? route.target() : contentType(file));
+			response.setContentLengthLong(Files.size(file));
+
+			try (InputStream in = Files.newInputStream(file)) {
+				send(in, response.getOutputStream());
+			}
+
+			pages.increment();
+			first.accumulateAndGet(System.nanoTime(), Math::min);
+		}
+
+		/**
+		 * Sends an error status with a short HTML body, like most web servers
+		 * do. Crawlers must not index these pages.
+		 *
+		 * @param response the response
+		 * @param status the status code
+		 * @throws IOException if unable to send the response
+		 */
+		private void error(HttpServletResponse response, int status) throws IOException {
+			byte[] body = """
+					<!DOCTYPE html>
+					<html><head><title>Error %d</title></head>
+					<body><h1>Error %d</h1><p>This page should not be indexed.</p></body></html>
+					""".formatted(status, status).getBytes(UTF_8);
+
+			response.setStatus(status);
+			response.setContentType("text/html; charset=utf-8");
+			response.setContentLength(body.length);
+
+			try (InputStream in = new ByteArrayInputStream(body)) {
+				send(in, response.getOutputStream());
+			}
+		}
+
+		/**
+		 * Sends the bytes in chunks, pausing between chunks to stay under the
+		 * bandwidth limit.
+		 *
+		 * @param in the bytes to send
+		 * @param out the response body
+		 * @throws IOException if unable to send the bytes
+		 */
+		private void send(InputStream in, OutputStream out) throws IOException {
+			int chunk = bandwidth > 0 ? (int) Math.max(1, Math.min(8192, bandwidth / 20)) : 8192;
+			byte[] buffer = new byte[chunk];
+			long start = System.nanoTime();
+			long sent = 0;
+			int read;
+
+			while ((read = in.read(buffer)) >= 0) {
+				out.write(buffer, 0, read);
+				sent += read;
+				bytes.add(read);
+
+				if (bandwidth > 0) {
+					out.flush();
+					long ahead = sent * 1_000_000_000L / bandwidth - (System.nanoTime() - start);
+
+					if (ahead > 0) {
+						try {
+							Thread.sleep(Duration.ofNanos(ahead));
+						}
+						catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							return;
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Generates a synthetic web site for crawl benchmarks. The pages form a tree
+	 * where every page links to its next children (so every page is reachable
+	 * in breadth-first order), plus a few links back to random earlier pages
+	 * that the crawler has to skip. The words are chosen from a fixed
+	 * vocabulary with a skewed distribution, so some words are much more
+	 * common than others like in real text. The same seed always generates the
+	 * same web site.
+	 *
+	 * @param root the directory to serve
+	 * @param host the host directory name for the web site
+	 * @param count the number of pages
+	 * @param links the number of child links per page
+	 * @param words the number of words per page
+	 * @param seed the random seed
+	 * @return the path of the first page relative to the server base
+	 * @throws IOException if unable to write the pages
+	 */
+	public static String generate(Path root, String host, int count, int links, int words, long seed) throws IOException {
+		Random random = new Random(seed);
+		Path directory = Files.createDirectories(root.resolve(host));
+
+		String[] vocabulary = new String[2048];
+
+		for (int i = 0; i < vocabulary.length; i++) {
+			char[] letters = new char[3 + random.nextInt(8)];
+
+			for (int j = 0; j < letters.length; j++) {
+				letters[j] = (char) ('a' + random.nextInt(26));
+			}
+
+			vocabulary[i] = new String(letters);
+		}
+
+		for (int page = 0; page < count; page++) {
+			StringBuilder html = new StringBuilder();
+			html.append("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n");
+			html.append("\t<meta charset=\"utf-8\">\n");
+			html.append("\t<title>Page ").append(page).append("</title>\n</head>\n<body>\n\t<p>");
+
+			for (int i = 0; i < words; i++) {
+				int index = (int) (vocabulary.length * Math.pow(random.nextDouble(), 3));
+				html.append(vocabulary[index]).append(i % 16 == 15 ? "\n\t" : " ");
+			}
+
+			html.append("</p>\n\t<ul>\n");
+
+			for (int i = 1; i <= links; i++) {
+				long child = (long) page * links + i;
+
+				if (child < count) {
+					html.append("\t\t<li><a href=\"").append(page(child)).append("\">next</a></li>\n");
+				}
+			}
+
+			for (int i = 0; i < 2 && page > 0; i++) {
+				html.append("\t\t<li><a href=\"").append(page(random.nextInt(page))).append("\">back</a></li>\n");
+			}
+
+			html.append("\t</ul>\n</body>\n</html>\n");
+			Files.writeString(directory.resolve(page(page)), html, UTF_8);
+		}
+
+		return host + "/" + page(0);
+	}
+
+	/**
+	 * Returns the file name of a generated page.
+	 *
+	 * @param page the page number
+	 * @return the file name
+	 */
+	private static String page(long page) {
+		return String.format("page-%05d.html", page);
+	}
+
+	/**
+	 * Serves the directory provided as the first argument (or a generated web
+	 * site if there are no arguments) until the process is stopped.
+	 *
+	 * @param args the optional directory to serve
+	 * @throws Exception if unable to serve the directory
+	 */
+	public static void main(String[] args) throws Exception {
+		Path root = args.length > 0 ? Path.of(args[0]) : Files.createTempDirectory("site-");
+		String first = args.length > 0 ? "" : generate(root, "crawl.local", 1000, 4, 500, 272);
+
+		ProjectServer server = new ProjectServer(root, Duration.ofMillis(LATENCY), BANDWIDTH);
+		System.out.printf("Serving %s at %s%s%n", root, server.start(), first);
+		server.server.join();
+	}
+}
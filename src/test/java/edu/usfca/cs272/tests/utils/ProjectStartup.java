@@ -0,0 +1,382 @@
+package edu.usfca.cs272.tests.utils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+
+import edu.usfca.cs272.Driver;
+
+/**
+ * Measures the startup cost of short {@link Driver} runs in freshly launched
+ * JVMs, and creates application class data sharing (AppCDS) archives that let
+ * later launches map already parsed and verified classes instead of loading
+ * them from the jar files again.
+ *
+ * The JVM only archives classes loaded from jar files, so the class
+ * directories on the classpath (such as {@code target/classes}) are packed
+ * into jar files first. Only the runtime classpath is archived, never the test
+ * classes. Launches with and without the archive use the same packed classpath
+ * so they can be compared, and the loaded classes are counted in separate
+ * launches since logging them slows down the launch. To create an archive for other
+ * launches, run the {@link #main(String[])} method (or
+ * {@code mvn -P appcds process-test-classes}) from the project-tests
+ * directory, and then launch with the same classpath and the
+ * {@code -XX:SharedArchiveFile} flag it outputs.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+public class ProjectStartup {
+	/** The libraries to count loaded classes for, by package prefix. */
+	public static final Map<String, String> LIBRARIES = libraries();
+
+	/**
+	 * The timings of a single launch.
+	 *
+	 * @param process the wall time of the entire process in nanoseconds
+	 * @param first the time until the output file was first written in
+	 *   nanoseconds (or the process time if there was no output)
+	 */
+	public static record Launch(long process, long first) {
+	}
+
+	/**
+	 * The classes loaded by a single launch.
+	 *
+	 * @param classes the number of classes loaded
+	 * @param shared the number of classes mapped from a class data sharing
+	 *   archive (the default JDK archive or an AppCDS archive)
+	 * @param libraries the number of classes loaded by library
+	 */
+	public static record Classes(int classes, int shared, Map<String, Integer> libraries) {
+	}
+
+	/**
+	 * Returns the package prefixes of every library to count loaded classes for.
+	 *
+	 * @return the library names by package prefix
+	 */
+	private static Map<String, String> libraries() {
+		Map<String, String> libraries = new LinkedHashMap<>();
+		libraries.put("edu.usfca.cs272.", "Project");
+		libraries.put("opennlp.", "OpenNLP");
+		libraries.put("org.apache.logging.", "Log4j2");
+		libraries.put("org.slf4j.", "Log4j2");
+		libraries.put("org.eclipse.jetty.", "Jetty");
+		libraries.put("jakarta.", "Jetty");
+		libraries.put("org.apache.commons.", "Commons");
+		libraries.put("java.", "JDK");
+		libraries.put("javax.", "JDK");
+		libraries.put("jdk.", "JDK");
+		libraries.put("sun.", "JDK");
+		libraries.put("com.sun.", "JDK");
+		return libraries;
+	}
+
+	/**
+	 * Returns the runtime classpath of this JVM with every class directory packed
+	 * into a jar file in the provided directory, since only classes from jar
+	 * files can be archived. The test classes (where this class was loaded from)
+	 * are left out, since the driver never loads them.
+	 *
+	 * @param directory where to create the jar files
+	 * @return the classpath
+	 * @throws IOException if unable to create the jar files
+	 * @see #classpath(Path, String)
+	 */
+	public static String classpath(Path directory) throws IOException {
+		CodeSource source = ProjectStartup.class.getProtectionDomain().getCodeSource();
+		Path tests = null;
+
+		try {
+			tests = source == null ? null : Path.of(source.getLocation().toURI()).toAbsolutePath();
+		}
+		catch (URISyntaxException e) {
+			tests = null;
+		}
+
+		List<String> runtime = new ArrayList<>();
+
+		for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+			if (!entry.isBlank() && !Path.of(entry).toAbsolutePath().equals(tests)) {
+				runtime.add(entry);
+			}
+		}
+
+		return classpath(directory, String.join(File.pathSeparator, runtime));
+	}
+
+	/**
+	 * Returns the provided runtime classpath (such as {@code target/classes} and
+	 * the runtime dependencies) with every class directory packed into a jar file
+	 * in the provided directory, since only classes from jar files can be
+	 * archived.
+	 *
+	 * @param directory where to create the jar files
+	 * @param runtime the runtime classpath
+	 * @return the classpath
+	 * @throws IOException if unable to create the jar files
+	 */
+	public static String classpath(Path directory, String runtime) throws IOException {
+		List<String> entries = new ArrayList<>();
+		String[] original = runtime.split(File.pathSeparator);
+
+		for (int i = 0; i < original.length; i++) {
+			Path entry = Path.of(original[i]);
+
+			if (Files.isDirectory(entry)) {
+				Path jar = directory.resolve(i + "-" + entry.getFileName() + ".jar");
+				pack(entry, jar);
+				entries.add(jar.toAbsolutePath().toString());
+			}
+			else if (!original[i].isBlank()) {
+				entries.add(original[i]);
+			}
+		}
+
+		return String.join(File.pathSeparator, entries);
+	}
+
+	/**
+	 * Packs every file in the class directory into a jar file.
+	 *
+	 * @param classes the class directory
+	 * @param jar the jar file to create
+	 * @throws IOException if unable to read or write the files
+	 */
+	private static void pack(Path classes, Path jar) throws IOException {
+		try (
+				Stream<Path> stream = Files.walk(classes);
+				JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar));
+		) {
+			for (Path file : stream.filter(Files::isRegularFile).sorted().toList()) {
+				out.putNextEntry(new JarEntry(classes.relativize(file).toString().replace('\\', '/')));
+				Files.copy(file, out);
+				out.closeEntry();
+			}
+		}
+	}
+
+	/**
+	 * Returns the arguments of the training run used to create the archive. The
+	 * training run builds, searches, and outputs everything for the simple text
+	 * files so that all of the classes of a typical short run are loaded.
+	 *
+	 * @param output the directory for the output files
+	 * @return the driver arguments
+	 */
+	public static String[] training(Path output) {
+		return new String[] {
+				ProjectFlag.TEXT.flag, ProjectPath.SIMPLE.text,
+				ProjectFlag.QUERY.flag, ProjectPath.QUERY_SIMPLE.text,
+				ProjectFlag.COUNTS.flag, output.resolve(ProjectFlag.COUNTS.value).toString(),
+				ProjectFlag.INDEX.flag, output.resolve(ProjectFlag.INDEX.value).toString(),
+				ProjectFlag.RESULTS.flag, output.resolve(ProjectFlag.RESULTS.value).toString()
+		};
+	}
+
+	/**
+	 * Creates an AppCDS archive of every class loaded by a training run of the
+	 * driver, using the dynamic archive of the JVM.
+	 *
+	 * @param archive the archive file to create
+	 * @param classpath the classpath (see {@link #classpath(Path)})
+	 * @param training the driver arguments of the training run
+	 * @return the flag to use the archive in later launches
+	 * @throws IOException if unable to launch the training run
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public static String archive(Path archive, String classpath, String[] training)
+			throws IOException, InterruptedException {
+		Files.deleteIfExists(archive);
+		Files.createDirectories(archive.toAbsolutePath().getParent());
+
+		launch(List.of("-XX:ArchiveClassesAtExit=" + archive.toAbsolutePath()), classpath, null, training,
+				ProjectTests.LONG_TIMEOUT);
+
+		Assertions.assertTrue(Files.isReadable(archive), () -> "Unable to create the archive: " + archive);
+		return "-XX:SharedArchiveFile=" + archive.toAbsolutePath();
+	}
+
+	/**
+	 * Launches the driver in a new JVM, and measures the time until the output
+	 * file is first written and the time until the process exits. Nothing is
+	 * logged by these launches, so use {@link #classes(List, String, String[], Duration)}
+	 * in separate launches to count the loaded classes.
+	 *
+	 * @param flags the JVM flags
+	 * @param classpath the classpath
+	 * @param output the output file to wait for (or null to skip)
+	 * @param args the driver arguments
+	 * @param timeout the maximum time to wait for the process
+	 * @return the timings of the launch
+	 * @throws IOException if unable to launch the process
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public static Launch launch(List<String> flags, String classpath, Path output, String[] args, Duration timeout)
+			throws IOException, InterruptedException {
+		Path console = Files.createTempFile("startup-", ".txt");
+
+		try {
+			if (output != null) {
+				Files.deleteIfExists(output);
+			}
+
+			List<String> command = ProjectForks.command(flags, classpath, Driver.class, Arrays.asList(args));
+			ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(console.toFile());
+
+			long start = System.nanoTime();
+			long first = -1;
+			Process process = builder.start();
+
+			// poll for the output file until the process exits or the timeout passes
+			long deadline = start + timeout.toNanos();
+
+			while (process.isAlive() && System.nanoTime() < deadline) {
+				if (first < 0 && output != null && Files.exists(output)) {
+					first = System.nanoTime() - start;
+				}
+
+				LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+			}
+
+			boolean finished = process.waitFor(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			long elapsed = System.nanoTime() - start;
+
+			if (!finished) {
+				process.destroyForcibly();
+			}
+
+			String debug = "%nCommand:%n    %s%nExit: %s%nOutput:%n%s";
+			String status = finished ? Integer.toString(process.exitValue()) : "timed out";
+
+			Assertions.assertTrue(finished && process.exitValue() == 0,
+					ProjectTests.debug(debug, String.join(" ", command), status, Files.readString(console, UTF_8)));
+
+			return new Launch(elapsed, first < 0 ? elapsed : first);
+		}
+		finally {
+			Files.deleteIfExists(console);
+		}
+	}
+
+	/**
+	 * Launches the driver in a new JVM that logs every class it loads, and counts
+	 * the classes. The logging slows down the launch, so it is never timed.
+	 *
+	 * @param flags the JVM flags
+	 * @param classpath the classpath
+	 * @param args the driver arguments
+	 * @param timeout the maximum time to wait for the process
+	 * @return the classes loaded by the launch
+	 * @throws IOException if unable to launch the process or read the log
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public static Classes classes(List<String> flags, String classpath, String[] args, Duration timeout)
+			throws IOException, InterruptedException {
+		Path log = Files.createTempFile("startup-", ".log");
+
+		try {
+			List<String> options = new ArrayList<>(flags);
+			options.add("-Xlog:class+load=info:file=" + log.toAbsolutePath());
+
+			launch(options, classpath, null, args, timeout);
+			return classes(log);
+		}
+		finally {
+			Files.deleteIfExists(log);
+		}
+	}
+
+	/**
+	 * Counts the classes in a class loading log.
+	 *
+	 * @param log the log output by {@code -Xlog:class+load}
+	 * @return the classes loaded
+	 * @throws IOException if unable to read the log
+	 */
+	private static Classes classes(Path log) throws IOException {
+		Map<String, Integer> libraries = new LinkedHashMap<>();
+		LIBRARIES.values().forEach(library -> libraries.put(library, 0));
+		libraries.put("Other", 0);
+
+		int classes = 0;
+		int shared = 0;
+
+		try (Stream<String> lines = Files.lines(log, UTF_8)) {
+			for (String line : lines.toList()) {
+				int index = line.indexOf("[class,load] ");
+
+				if (index < 0) {
+					continue;
+				}
+
+				String name = line.substring(index + "[class,load] ".length()).split(" ", 2)[0];
+				String library = LIBRARIES.entrySet().stream()
+						.filter(entry -> name.startsWith(entry.getKey()))
+						.map(Map.Entry::getValue)
+						.findFirst().orElse("Other");
+
+				libraries.merge(library, 1, Integer::sum);
+				classes++;
+
+				if (line.contains("source: shared objects file")) {
+					shared++;
+				}
+			}
+		}
+
+		return new Classes(classes, shared, libraries);
+	}
+
+	/**
+	 * Creates an AppCDS archive from a training run of the driver. The optional
+	 * first argument is the archive file (target/driver.jsa by default), and the
+	 * packed jar files are created next to it. The optional second argument is
+	 * the runtime classpath to archive (this JVM's classpath without the test
+	 * classes by default).
+	 *
+	 * @param args the optional archive file and runtime classpath
+	 * @throws Exception if unable to create the archive
+	 */
+	public static void main(String[] args) throws Exception {
+		Path archive = Path.of(args.length > 0 ? args[0] : "target/driver.jsa").toAbsolutePath();
+		Path directory = archive.getParent().resolve("appcds");
+		Path output = Files.createTempDirectory("training-");
+
+		try {
+			Files.createDirectories(directory);
+			String classpath = args.length > 1 ? classpath(directory, args[1]) : classpath(directory);
+			String flag = archive(archive, classpath, training(output));
+
+			System.out.printf("Created %s (%.2f MB)%n", archive, Files.size(archive) / 1048576.0);
+			System.out.printf("Launch with: java %s -cp %s %s%n", flag, classpath, Driver.class.getName());
+		}
+		finally {
+			ProjectTests.deleteFiles(output);
+			Files.deleteIfExists(output);
+		}
+	}
+
+	/** Prevent instantiating this class of static methods. */
+	private ProjectStartup() {
+	}
+}
@@ -0,0 +1,261 @@
+package edu.usfca.cs272.tests.utils;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Summary statistics used to compare benchmark runtimes. Uses robust
+ * statistics (medians and percentiles) and bootstrap confidence intervals so
+ * that a single noisy round does not decide whether a benchmark passes.
+ *
+ * @author CS 272 Software Development (University of San Francisco)
+ * @version Spring 2025
+ */
+public class ProjectStatistics {
+	/** The number of bootstrap resamples to use for confidence intervals. */
+	public static final int RESAMPLES = 10_000;
+
+	/** The confidence level to use for confidence intervals. */
+	public static final double CONFIDENCE = 0.95;
+
+	/** The seed used for resampling so the reports are reproducible. */
+	public static final long SEED = 272;
+
+	/**
+	 * Returns the arithmetic mean of the values.
+	 *
+	 * @param values the values
+	 * @return the mean or 0 if there are no values
+	 */
+	public static double mean(long[] values) {
+		return Arrays.stream(values).average().orElse(0);
+	}
+
+	/**
+	 * Returns the sample standard deviation of the values.
+	 *
+	 * @param values the values
+	 * @return the standard deviation or 0 if there are fewer than 2 values
+	 */
+	public static double stddev(long[] values) {
+		if (values.length < 2) {
+			return 0;
+		}
+
+		double mean = mean(values);
+		double total = 0;
+
+		for (long value : values) {
+			total += (value - mean) * (value - mean);
+		}
+
+		return Math.sqrt(total / (values.length - 1));
+	}
+
+	/**
+	 * Returns the median of the values.
+	 *
+	 * @param values the values
+	 * @return the median or 0 if there are no values
+	 */
+	public static double median(long[] values) {
+		return percentile(values, 50);
+	}
+
+	/**
+	 * Returns the percentile of the values, linearly interpolating between the
+	 * closest ranks. Does not modify the original array.
+	 *
+	 * @param values the values
+	 * @param percent the percentile between 0 and 100
+	 * @return the percentile or 0 if there are no values
+	 */
+	public static double percentile(long[] values, double percent) {
+		if (values.length == 0) {
+			return 0;
+		}
+
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sortedPercentile(sorted, percent);
+	}
+
+	/**
+	 * Returns the percentile of values that are already sorted.
+	 *
+	 * @param sorted the sorted values
+	 * @param percent the percentile between 0 and 100
+	 * @return the percentile
+	 */
+	private static double sortedPercentile(long[] sorted, double percent) {
+		double rank = Math.max(0, Math.min(100, percent)) / 100 * (sorted.length - 1);
+		int lower = (int) Math.floor(rank);
+		int upper = (int) Math.ceil(rank);
+		return sorted[lower] + (rank - lower) * (sorted[upper] - sorted[lower]);
+	}
+
+	/**
+	 * Returns the percentile of values that are already sorted.
+	 *
+	 * @param sorted the sorted values
+	 * @param percent the percentile between 0 and 100
+	 * @return the percentile
+	 */
+	private static double sortedPercentile(double[] sorted, double percent) {
+		double rank = Math.max(0, Math.min(100, percent)) / 100 * (sorted.length - 1);
+		int lower = (int) Math.floor(rank);
+		int upper = (int) Math.ceil(rank);
+		return sorted[lower] + (rank - lower) * (sorted[upper] - sorted[lower]);
+	}
+
+	/**
+	 * Estimates the speedup of the second set of runtimes over the first as the
+	 * ratio of their medians, along with a percentile bootstrap confidence
+	 * interval for that ratio.
+	 *
+	 * @param baseline the baseline runtimes
+	 * @param candidate the runtimes being compared against the baseline
+	 * @return the speedup and its confidence interval
+	 */
+	public static Speedup speedup(long[] baseline, long[] candidate) {
+		return speedup(baseline, candidate, RESAMPLES, CONFIDENCE);
+	}
+
+	/**
+	 * Estimates the speedup of the second set of runtimes over the first as the
+	 * ratio of their medians, along with a percentile bootstrap confidence
+	 * interval for that ratio.
+	 *
+	 * @param baseline the baseline runtimes
+	 * @param candidate the runtimes being compared against the baseline
+	 * @param resamples the number of bootstrap resamples
+	 * @param confidence the confidence level between 0 and 1
+	 * @return the speedup and its confidence interval
+	 */
+	public static Speedup speedup(long[] baseline, long[] candidate, int resamples, double confidence) {
+		double estimate = ratio(median(baseline), median(candidate));
+
+		if (baseline.length == 0 || candidate.length == 0 || resamples <= 0) {
+			return new Speedup(estimate, estimate, estimate, confidence);
+		}
+
+		SplittableRandom random = new SplittableRandom(SEED);
+		double[] ratios = new double[resamples];
+		long[] sample1 = new long[baseline.length];
+		long[] sample2 = new long[candidate.length];
+
+		for (int i = 0; i < resamples; i++) {
+			resample(baseline, sample1, random);
+			resample(candidate, sample2, random);
+			ratios[i] = ratio(sortedPercentile(sample1, 50), sortedPercentile(sample2, 50));
+		}
+
+		Arrays.sort(ratios);
+
+		double tail = (1 - confidence) / 2 * 100;
+		double lower = sortedPercentile(ratios, tail);
+		double upper = sortedPercentile(ratios, 100 - tail);
+
+		return new Speedup(estimate, lower, upper, confidence);
+	}
+
+	/**
+	 * Fits Amdahl's law to the measured speedups using least squares, and returns
+	 * the estimated serial (non-parallelizable) fraction of the work. Amdahl's law
+	 * predicts a speedup of {@code 1 / (f + (1 - f) / n)} with {@code n} workers
+	 * and serial fraction {@code f}, which is linear in {@code f} after
+	 * rearranging to {@code 1/S - 1/n = f * (1 - 1/n)}.
+	 *
+	 * @param workers the number of workers for each measurement
+	 * @param speedups the measured speedup for each number of workers
+	 * @return the fitted serial fraction between 0 and 1
+	 */
+	public static double amdahl(int[] workers, double[] speedups) {
+		double numerator = 0;
+		double denominator = 0;
+
+		for (int i = 0; i < workers.length; i++) {
+			double x = 1 - 1.0 / workers[i];
+			double y = 1 / speedups[i] - 1.0 / workers[i];
+
+			numerator += x * y;
+			denominator += x * x;
+		}
+
+		if (denominator == 0) {
+			return 0;
+		}
+
+		return Math.max(0, Math.min(1, numerator / denominator));
+	}
+
+	/**
+	 * Returns the speedup predicted by Amdahl's law.
+	 *
+	 * @param serial the serial fraction of the work
+	 * @param workers the number of workers
+	 * @return the predicted speedup
+	 */
+	public static double amdahl(double serial, int workers) {
+		return 1 / (serial + (1 - serial) / workers);
+	}
+
+	/**
+	 * Fills the sample with values drawn with replacement from the original, and
+	 * then sorts the sample.
+	 *
+	 * @param original the original values
+	 * @param sample the sample to fill
+	 * @param random the source of randomness
+	 */
+	private static void resample(long[] original, long[] sample, SplittableRandom random) {
+		for (int i = 0; i < sample.length; i++) {
+			sample[i] = original[random.nextInt(original.length)];
+		}
+
+		Arrays.sort(sample);
+	}
+
+	/**
+	 * Safely divides two runtimes, treating a zero runtime as a single unit.
+	 *
+	 * @param numerator the numerator
+	 * @param denominator the denominator
+	 * @return the ratio
+	 */
+	private static double ratio(double numerator, double denominator) {
+		return Math.max(numerator, 1) / Math.max(denominator, 1);
+	}
+
+	/**
+	 * A speedup estimate with its confidence interval.
+	 *
+	 * @param estimate the ratio of the median runtimes
+	 * @param lower the lower bound of the confidence interval
+	 * @param upper the upper bound of the confidence interval
+	 * @param confidence the confidence level of the interval
+	 */
+	public static record Speedup(double estimate, double lower, double upper, double confidence) {
+		/**
+		 * Determines whether the speedup reaches the target, judged on the
+		 * confidence interval instead of a single pair of runs. The speedup only
+		 * reaches the target if the lower bound of the interval does, so a noisy
+		 * measurement never passes on a lucky estimate alone.
+		 *
+		 * @param target the target speedup
+		 * @return true if the lower bound of the interval reaches the target
+		 */
+		public boolean reaches(double target) {
+			return lower >= target;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%.2fx (%.0f%% CI %.2fx to %.2fx)", estimate, confidence * 100, lower, upper);
+		}
+	}
+
+	/** Prevent instantiating this class of static methods. */
+	private ProjectStatistics() {
+	}
+}
@@ -9,10 +9,20 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
@@ -21,10 +31,15 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Predicate;
@@ -40,7 +55,14 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
 import org.junit.jupiter.api.extension.TestWatcher;
 import org.junit.jupiter.api.function.Executable;
 import org.opentest4j.MultipleFailuresError;
@@ -53,6 +75,7 @@ import edu.usfca.cs272.Driver;
  * @author CS 272 Software Development (University of San Francisco)
  * @version Spring 2025
  */
+@ExtendWith(ProjectTests.TestTelemetry.class)
 public class ProjectTests {
 	/** Amount of time to wait for long-running tests to finish. */
 	public static final Duration LONG_TIMEOUT = Duration.ofMinutes(5);
@@ -60,6 +83,28 @@ public class ProjectTests {
 	/** Amount of time to wait for short-running tests to finish. */
 	public static final Duration SHORT_TIMEOUT = Duration.ofSeconds(30);
 
+	/**
+	 * The resource lock for tests that use the default output files in the
+	 * working directory (e.g. {@code index.json}), which cannot be isolated.
+	 */
+	public static final String DEFAULT_OUTPUT = "edu.usfca.cs272.tests.default-output";
+
+	/** Whether old actual files were already cleaned up by an earlier test class. */
+	private static final AtomicBoolean cleaned = new AtomicBoolean(false);
+
+	/** Files at least this many bytes are memory-mapped when compared. */
+	public static final long MAPPED_SIZE = 1 << 20;
+
+	/**
+	 * Whether JSON output that is structurally equal to the expected output
+	 * passes even if the formatting differs. Off by default since the expected
+	 * pretty-printing is part of the project requirements.
+	 */
+	public static final boolean STRUCTURAL_JSON = Boolean.parseBoolean(setting("json.structural", "false"));
+
+	/** Debug output used when JSON files only differ in formatting. */
+	public static final String SAME_JSON = "\n\tSame JSON values; only the formatting (e.g. whitespace or number format) differs.";
+
 	/** Stores failures from uncaught exceptions. */
 	public static final List<Executable> UNCAUGHT = Collections.synchronizedList(new ArrayList<>());
 
@@ -147,6 +192,21 @@ public class ProjectTests {
 	 * @param files map of actual to expected files to test
 	 */
 	public static void checkOutput(String[] args, Map<Path, Path> files) {
+		checkOutput(args, files, LONG_TIMEOUT);
+	}
+
+	/**
+	 * Checks whether {@link Driver} generates the expected output without any
+	 * exceptions within the timeout. Will print the stack trace if an exception
+	 * occurs. Designed to be used within an unit test. If the test was
+	 * successful, deletes the actual files. Otherwise, keeps the files for
+	 * debugging purposes.
+	 *
+	 * @param args arguments to pass to {@link Driver}
+	 * @param files map of actual to expected files to test
+	 * @param timeout the duration to run before timing out
+	 */
+	public static void checkOutput(String[] args, Map<Path, Path> files, Duration timeout) {
 		try {
 			ArrayList<Executable> tests = new ArrayList<>();
 
@@ -178,15 +238,20 @@ public class ProjectTests {
 						Assertions.fail(() -> message.formatted(actual));
 					}
 
-					// Compare the two files
-					int count = compareFiles(actual, expected);
+					// Compare the two files (using the digest manifest when possible)
+					int count = ProjectDigests.matches(actual, expected) ? 1 : compareFiles(actual, expected);
 
 					if (count <= 0) {
-						String message = """
-								\tUnexpected output on line %d
-								\t\tat %s and
-								\t\tat %s""";
-						Assertions.fail(() -> message.formatted(-count, actual, expected));
+						String structure = compareJson(actual, expected);
+
+						// optionally allow json output that only differs in formatting
+						if (!(STRUCTURAL_JSON && structure.equals(SAME_JSON))) {
+							String message = """
+									\tUnexpected output on line %d
+									\t\tat %s and
+									\t\tat %s%s""";
+							Assertions.fail(() -> message.formatted(-count, actual, expected, structure));
+						}
 					}
 
 					// Clean up file if get this far
@@ -198,7 +263,7 @@ public class ProjectTests {
 			}
 
 			// Generate actual output files
-			assertNoExceptions(args, LONG_TIMEOUT);
+			assertNoExceptions(args, timeout);
 
 			// Compare all output files
 			assertMultiple(tests, args, "Found error(s) while comparing file output.");
@@ -224,6 +289,45 @@ public class ProjectTests {
 				.toArray(String[]::new);
 	}
 
+	/**
+	 * Returns the value of a setting from the system properties (for example,
+	 * {@code -Dbench.rounds=5}) or from the environment (for example,
+	 * {@code BENCH_ROUNDS=5}), falling back to the provided default value.
+	 *
+	 * @param name the dotted setting name
+	 * @param value the default value if the setting is missing
+	 * @return the setting value
+	 */
+	public static String setting(String name, String value) {
+		String property = System.getProperty(name);
+
+		if (property != null && !property.isBlank()) {
+			return property.strip();
+		}
+
+		String variable = System.getenv(name.toUpperCase().replace('.', '_'));
+		return variable != null && !variable.isBlank() ? variable.strip() : value;
+	}
+
+	/**
+	 * Returns the value of an integer setting, falling back to the provided
+	 * default value if the setting is missing or invalid.
+	 *
+	 * @param name the dotted setting name
+	 * @param value the default value if the setting is missing
+	 * @return the setting value
+	 *
+	 * @see #setting(String, String)
+	 */
+	public static int setting(String name, int value) {
+		try {
+			return Integer.parseInt(setting(name, Integer.toString(value)));
+		}
+		catch (NumberFormatException e) {
+			return value;
+		}
+	}
+
 	/**
 	 * Checks whether {@link Driver} will run without generating any exceptions.
 	 * Will print the stack trace if an exception occurs. Designed to be used within
@@ -361,46 +465,13 @@ public class ProjectTests {
 			return;
 		}
 
-		// sometimes test run in project-tests repo, not project source repo
-		// need to find location of Driver class
-		// see: https://stackoverflow.com/a/778246
-		URL resource = Driver.class.getResource("Driver.class");
-
-		if (resource == null || !resource.getProtocol().equalsIgnoreCase("file")) {
-			Assertions.fail("Unable to locate Driver.java for project...");
+		if (gitDirectory() == null) {
+			Assertions.fail("Unable to locate Driver.java or .git directory for project...");
 		}
 
-		// attempt to find .git folder
-		Path driver = Path.of(resource.toURI());
-		Path current = driver.getParent();
-
-		Path gitDir = null;
-		Path pomXml = null;
-
-		while (current != null) {
-			gitDir = current.resolve(".git");
-			pomXml = current.resolve("pom.xml");
-
-			if (Files.isDirectory(gitDir) && Files.isRegularFile(pomXml)) {
-				break;
-			}
-
-			current = current.getParent();
-		}
-
-		if (!Files.isDirectory(gitDir)) {
-			Assertions.fail("Unable to locate .git directory for project...");
-		}
-
-		// setup repository builder
-		FileRepositoryBuilder builder = new FileRepositoryBuilder();
-		builder = builder.setGitDir(gitDir.toFile())
-				.readEnvironment()
-				.findGitDir();
-
 		// try to load repository
 		try (
-			Repository repository = builder.build();
+			Repository repository = gitRepository();
 			Git git = new Git(repository);
 		) {
 			Status status = git.status().call();
@@ -449,6 +520,64 @@ public class ProjectTests {
 		}
 	}
 
+	/**
+	 * Finds the .git directory of the project being tested, which is not always
+	 * the same as the working directory since sometimes tests run in the
+	 * project-tests repository instead of the project source repository.
+	 *
+	 * @return the .git directory or null if unable to locate it
+	 * @throws URISyntaxException if unable to convert the driver location
+	 */
+	public static Path gitDirectory() throws URISyntaxException {
+		// need to find location of Driver class
+		// see: https://stackoverflow.com/a/778246
+		URL resource = Driver.class.getResource("Driver.class");
+
+		if (resource == null || !resource.getProtocol().equalsIgnoreCase("file")) {
+			return null;
+		}
+
+		// attempt to find .git folder
+		Path driver = Path.of(resource.toURI());
+		Path current = driver.getParent();
+
+		while (current != null) {
+			Path gitDir = current.resolve(".git");
+			Path pomXml = current.resolve("pom.xml");
+
+			if (Files.isDirectory(gitDir) && Files.isRegularFile(pomXml)) {
+				return gitDir;
+			}
+
+			current = current.getParent();
+		}
+
+		return null;
+	}
+
+	/**
+	 * Opens the git repository of the project being tested.
+	 *
+	 * @return the repository or null if unable to locate it
+	 * @throws URISyntaxException if unable to convert the driver location
+	 * @throws IOException if unable to open the repository
+	 *
+	 * @see #gitDirectory()
+	 */
+	public static Repository gitRepository() throws URISyntaxException, IOException {
+		Path gitDir = gitDirectory();
+
+		if (gitDir == null) {
+			return null;
+		}
+
+		return new FileRepositoryBuilder()
+				.setGitDir(gitDir.toFile())
+				.readEnvironment()
+				.findGitDir()
+				.build();
+	}
+
 	/**
 	 * Makes sure the expected environment is setup before running any tests.
 	 */
@@ -468,7 +597,8 @@ public class ProjectTests {
 			Files.createDirectories(ACTUAL.path);
 			Assertions.assertTrue(Files.isWritable(ACTUAL.path), ACTUAL.text);
 
-			if (!System.getenv().containsKey("SKIP_ACTUAL_CLEANUP")) {
+			// only clean up once since test classes may run in parallel
+			if (!System.getenv().containsKey("SKIP_ACTUAL_CLEANUP") && cleaned.compareAndSet(false, true)) {
 				int count = deleteFiles(ACTUAL.path);
 				System.out.printf("Removed %d old actual files...%n", count);
 			}
@@ -516,8 +646,15 @@ public class ProjectTests {
 	 * @return positive value if two files are equal, negative value if not
 	 *
 	 * @throws IOException if IO error occurs
+	 *
+	 * @see #identicalFiles(Path, Path)
 	 */
 	public static int compareFiles(Path path1, Path path2) throws IOException {
+		// most files are byte-for-byte identical, so check that first
+		if (identicalFiles(path1, path2)) {
+			return 1;
+		}
+
 		// used to output line mismatch
 		int count = 0;
 
@@ -569,6 +706,74 @@ public class ProjectTests {
 		}
 	}
 
+	/**
+	 * Describes the first structural difference between two JSON files for
+	 * debugging output, including the JSON path of the difference.
+	 *
+	 * @param actual the actual output file
+	 * @param expected the expected output file
+	 * @return the description, {@link #SAME_JSON} if the files are structurally
+	 *   equal, or an empty string if the files are not JSON
+	 *
+	 * @see ProjectJson#mismatch(Path, Path)
+	 */
+	public static String compareJson(Path actual, Path expected) {
+		if (!expected.getFileName().toString().endsWith(".json")) {
+			return "";
+		}
+
+		try {
+			String mismatch = ProjectJson.mismatch(actual, expected);
+			return mismatch == null ? SAME_JSON : "\n\tFirst JSON difference " + mismatch;
+		}
+		catch (IOException | IllegalArgumentException e) {
+			return "\n\tUnable to compare as JSON: " + e.getMessage();
+		}
+	}
+
+	/**
+	 * Checks if two files are byte-for-byte identical without decoding them into
+	 * lines. Large files are memory-mapped and compared in bulk, except on
+	 * Windows where mapped files cannot be deleted until they are garbage
+	 * collected. Returns false if the files differ in any way, including
+	 * differences {@link #compareFiles(Path, Path)} ignores.
+	 *
+	 * @param path1 path to first file to compare with
+	 * @param path2 path to second file to compare with
+	 * @return true if the files have exactly the same bytes
+	 * @throws IOException if IO error occurs
+	 */
+	public static boolean identicalFiles(Path path1, Path path2) throws IOException {
+		long size = Files.size(path1);
+
+		if (size != Files.size(path2)) {
+			return false;
+		}
+
+		if (size < MAPPED_SIZE || !File.separator.equals("/")) {
+			return Files.mismatch(path1, path2) < 0;
+		}
+
+		try (
+				FileChannel channel1 = FileChannel.open(path1, StandardOpenOption.READ);
+				FileChannel channel2 = FileChannel.open(path2, StandardOpenOption.READ);
+		) {
+			// a single mapping is limited to 2 GB
+			for (long position = 0; position < size; position += Integer.MAX_VALUE) {
+				long length = Math.min(Integer.MAX_VALUE, size - position);
+
+				MappedByteBuffer buffer1 = channel1.map(MapMode.READ_ONLY, position, length);
+				MappedByteBuffer buffer2 = channel2.map(MapMode.READ_ONLY, position, length);
+
+				if (buffer1.mismatch(buffer2) >= 0) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
 	/**
 	 * Deletes all files in a directory without suppressing any IO exceptions.
 	 *
@@ -634,7 +839,8 @@ public class ProjectTests {
 		try (
 				Stream<Path> stream = Files.walk(nix, FileVisitOption.FOLLOW_LINKS)
 					.filter(Files::isReadable)
-					.filter(Files::isRegularFile);
+					.filter(Files::isRegularFile)
+					.filter(path -> !path.getFileName().toString().equals(ProjectDigests.MANIFEST));
 		) {
 			for (Path original : stream.toList()) {
 				Path copy = win.resolve(nix.relativize(original));
@@ -734,6 +940,277 @@ public class ProjectTests {
 		}
 	}
 
+	/**
+	 * Records the wall time, heap used before and after, peak heap used, peak
+	 * live threads, and garbage collections of every test. When all tests are
+	 * done, writes a report of the slowest and most memory-hungry tests and of
+	 * the total time per suite to {@code telemetry.md} and {@code telemetry.json}
+	 * in the actual output directory.
+	 *
+	 * Registered for every test that extends {@link ProjectTests}, and only
+	 * records anything when turned on with the {@code telemetry} setting. The
+	 * garbage collector is run before the heap used is read before and after each
+	 * test, so it only includes reachable objects. The peaks are process-wide and
+	 * meaningless when tests run in parallel, so they are left out of the report
+	 * when parallel execution is enabled.
+	 */
+	public static class TestTelemetry implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+		/** Whether to record telemetry for every test. */
+		public static final boolean ENABLED = Boolean.parseBoolean(setting("telemetry", "false"));
+
+		/** The number of tests to include in each sorted table of the report. */
+		public static final int TOP = setting("telemetry.top", 15);
+
+		/** The namespace used to store the measurements of each test. */
+		private static final Namespace NAMESPACE = Namespace.create(TestTelemetry.class);
+
+		/**
+		 * The measurements of a single test.
+		 *
+		 * @param suite the test class name (without the package)
+		 * @param test the test name
+		 * @param millis the wall time in milliseconds
+		 * @param heapBefore the heap used in bytes before the test
+		 * @param heapAfter the heap used in bytes after the test
+		 * @param heapPeak the sum of the peak used bytes of every heap memory pool
+		 *   (or -1 if tests run in parallel)
+		 * @param threads the peak number of live threads (or -1 if tests run in
+		 *   parallel)
+		 * @param collections the number of garbage collections
+		 * @param pauses the garbage collection time in milliseconds
+		 */
+		public static record Telemetry(String suite, String test, double millis, long heapBefore, long heapAfter,
+				long heapPeak, int threads, long collections, long pauses) {
+		}
+
+		/**
+		 * The measurements taken before a test starts.
+		 *
+		 * @param nanos the start time in nanoseconds
+		 * @param heap the heap used in bytes
+		 * @param collections the number of garbage collections so far
+		 * @param pauses the garbage collection time so far in milliseconds
+		 */
+		private static record Start(long nanos, long heap, long collections, long pauses) {
+		}
+
+		/**
+		 * Collects the measurements of every test, and writes the report when
+		 * closed by JUnit after all tests are done.
+		 */
+		private static class Report implements CloseableResource {
+			/** The measurements of every test so far. */
+			private final Queue<Telemetry> tests = new ConcurrentLinkedQueue<>();
+
+			@Override
+			public void close() throws IOException {
+				if (!tests.isEmpty()) {
+					write(List.copyOf(tests));
+				}
+			}
+		}
+
+		/** Creates a new instance of this class. */
+		public TestTelemetry() {
+		}
+
+		@Override
+		public void beforeTestExecution(ExtensionContext context) throws Exception {
+			if (!ENABLED) {
+				return;
+			}
+
+			// collect first so the heap used only includes reachable objects
+			System.gc();
+
+			ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+			ManagementFactory.getMemoryPoolMXBeans().stream()
+					.filter(pool -> pool.getType() == MemoryType.HEAP)
+					.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+			long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+			long collections = ProjectBenchmarks.collectionCount();
+			long pauses = ProjectBenchmarks.collectionTime();
+
+			Start start = new Start(System.nanoTime(), heap, collections, pauses);
+
+			context.getStore(NAMESPACE).put(context.getUniqueId(), start);
+		}
+
+		@Override
+		public void afterTestExecution(ExtensionContext context) throws Exception {
+			Start start = context.getStore(NAMESPACE).remove(context.getUniqueId(), Start.class);
+
+			if (start == null) {
+				return;
+			}
+
+			double millis = (System.nanoTime() - start.nanos()) / 1_000_000.0;
+			long collections = ProjectBenchmarks.collectionCount() - start.collections();
+			long pauses = ProjectBenchmarks.collectionTime() - start.pauses();
+
+			// peaks are shared by every test running at the same time
+			boolean parallel = context.getConfigurationParameter("junit.jupiter.execution.parallel.enabled")
+					.map(Boolean::parseBoolean).orElse(false);
+
+			long peak = parallel ? -1 : ManagementFactory.getMemoryPoolMXBeans().stream()
+					.filter(pool -> pool.getType() == MemoryType.HEAP)
+					.mapToLong(pool -> pool.getPeakUsage().getUsed())
+					.sum();
+
+			int threads = parallel ? -1 : ManagementFactory.getThreadMXBean().getPeakThreadCount();
+
+			System.gc();
+			long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+			String name = context.getRequiredTestClass().getName();
+			String suite = name.substring(name.lastIndexOf('.') + 1).replace('$', '.');
+
+			String method = context.getRequiredTestMethod().getName();
+			String display = context.getDisplayName();
+			String test = display.startsWith(method) ? method : method + " " + display;
+
+			Telemetry telemetry = new Telemetry(suite, test, millis, start.heap(), heap, peak, threads,
+					collections, pauses);
+
+			context.getRoot().getStore(NAMESPACE)
+					.getOrComputeIfAbsent(Report.class, key -> new Report(), Report.class)
+					.tests.add(telemetry);
+		}
+
+		/**
+		 * Writes the report of the measurements as a markdown table and as
+		 * machine-readable JSON.
+		 *
+		 * @param tests the measurements of every test
+		 * @throws IOException if unable to write the report
+		 */
+		public static void write(List<Telemetry> tests) throws IOException {
+			StringWriter writer = new StringWriter();
+			PrintWriter out = new PrintWriter(writer);
+
+			Map<String, double[]> suites = new LinkedHashMap<>();
+			boolean peaks = tests.stream().allMatch(test -> test.heapPeak() >= 0);
+
+			for (Telemetry test : tests) {
+				double[] totals = suites.computeIfAbsent(test.suite(), key -> new double[3]);
+				totals[0]++;
+				totals[1] += test.millis();
+				totals[2] = Math.max(totals[2], test.heapPeak());
+			}
+
+			out.printf("%n## Test Telemetry - %d tests%n%n", tests.size());
+			out.printf("| Suite | Tests | Total (s) |%s%n", peaks ? " Peak Heap (MB) |" : "");
+			out.printf("|:------|------:|----------:|%s%n", peaks ? "---------------:|" : "");
+
+			suites.entrySet().stream()
+					.sorted(Comparator.comparingDouble((Map.Entry<String, double[]> entry) -> entry.getValue()[1]).reversed())
+					.forEach(entry -> out.printf("| %s | %.0f | %.2f |%s%n", entry.getKey(), entry.getValue()[0],
+							entry.getValue()[1] / 1000,
+							peaks ? " %.1f |".formatted(ProjectBenchmarks.megabytes(entry.getValue()[2])) : ""));
+
+			table(out, "Slowest Tests", tests, Comparator.comparingDouble(Telemetry::millis).reversed(), peaks);
+
+			if (peaks) {
+				table(out, "Most Memory-Hungry Tests", tests, Comparator.comparingLong(Telemetry::heapPeak).reversed(), peaks);
+			}
+
+			out.printf("%nHeap before and after is measured right after a garbage collection. Peak heap is the sum of%n");
+			out.printf("the peak of every heap memory pool during the test, and GC is the garbage collection time.%n");
+			out.printf(peaks ? "%n" : "Peaks are left out since tests ran in parallel, and collections are shared by them.%n%n");
+			out.flush();
+
+			List<Object> results = new ArrayList<>();
+
+			tests.stream().sorted(Comparator.comparingDouble(Telemetry::millis).reversed()).forEach(test -> {
+				Map<String, Object> summary = new LinkedHashMap<>();
+				summary.put("suite", test.suite());
+				summary.put("test", test.test());
+				summary.put("millis", test.millis());
+				summary.put("heapBefore", test.heapBefore());
+				summary.put("heapAfter", test.heapAfter());
+				summary.put("heapPeak", test.heapPeak());
+				summary.put("threads", test.threads());
+				summary.put("collections", test.collections());
+				summary.put("pauses", test.pauses());
+				results.add(summary);
+			});
+
+			Files.createDirectories(ACTUAL.path);
+			Files.writeString(ACTUAL.path.resolve("telemetry.md"), writer.toString());
+			Files.writeString(ACTUAL.path.resolve("telemetry.json"), ProjectJson.toJson(results));
+		}
+
+		/**
+		 * Outputs a markdown table of the first tests in sorted order.
+		 *
+		 * @param out the output
+		 * @param title the table title
+		 * @param tests the measurements of every test
+		 * @param order the sort order
+		 * @param peaks whether to include the peak heap and threads
+		 */
+		private static void table(PrintWriter out, String title, List<Telemetry> tests, Comparator<Telemetry> order,
+				boolean peaks) {
+			out.printf("%n### %s%n%n", title);
+			out.printf("| Test | Time (ms) | Heap Before (MB) | Heap After (MB) |%s GCs | GC (ms) |%n",
+					peaks ? " Peak Heap (MB) | Threads |" : "");
+			out.printf("|:-----|----------:|-----------------:|----------------:|%s----:|--------:|%n",
+					peaks ? "---------------:|--------:|" : "");
+
+			tests.stream().sorted(order).limit(TOP).forEach(test -> out.printf(
+					"| %s.%s | %.1f | %.1f | %.1f |%s %d | %d |%n",
+					test.suite(), test.test(), test.millis(),
+					ProjectBenchmarks.megabytes(test.heapBefore()), ProjectBenchmarks.megabytes(test.heapAfter()),
+					peaks ? " %.1f | %d |".formatted(ProjectBenchmarks.megabytes(test.heapPeak()), test.threads()) : "",
+					test.collections(), test.pauses()));
+		}
+	}
+
+	/**
+	 * Gives every test its own actual output directory (named after the test
+	 * class and method) so that output comparison tests can safely run in
+	 * parallel. Empty directories are removed after each test, so only the
+	 * output of failing tests is left behind for debugging.
+	 *
+	 * @see ProjectPath#isolate(Path)
+	 */
+	public static class IsolatedOutput implements BeforeEachCallback, AfterEachCallback {
+		/** Creates a new instance of this class. */
+		public IsolatedOutput() {
+		}
+
+		@Override
+		public void beforeEach(ExtensionContext context) throws Exception {
+			String name = context.getRequiredTestClass().getName();
+			String suite = name.substring(name.lastIndexOf('.') + 1).replace('$', '-');
+
+			String method = context.getRequiredTestMethod().getName();
+			String display = context.getDisplayName().replaceAll("[^A-Za-z0-9_.-]+", "-").replaceAll("^-|-$", "");
+			String test = display.startsWith(method) ? method : method + "-" + display;
+
+			ProjectPath.isolate(ACTUAL.path.resolve(suite).resolve(test));
+		}
+
+		@Override
+		public void afterEach(ExtensionContext context) throws Exception {
+			Path directory = ACTUAL.resolve(".").normalize();
+			ProjectPath.isolate(null);
+
+			// remove the empty directories (not the output of failing tests)
+			while (directory != null && !directory.equals(ACTUAL.path) && Files.isDirectory(directory)) {
+				try (Stream<Path> listing = Files.list(directory)) {
+					if (listing.findAny().isPresent()) {
+						break;
+					}
+				}
+
+				Files.delete(directory);
+				directory = directory.getParent();
+			}
+		}
+	}
+
 	/** Creates a new instance of this class. */
 	public ProjectTests() {
 	}